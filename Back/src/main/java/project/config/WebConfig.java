@@ -1,14 +1,66 @@
 package project.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.PathResourceResolver;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
+
+    private static final String PRIVATE_VIDEO_PREFIX = "videos/";
+
+    // Root directory of LocalBlobStore
+    @Value("${storage.local.root:uploads}")
+    private String storageRoot;
+
+    // Only lesson video streams (StreamingResponseBody) use MVC async processing
+    @Value("${lesson.video.max-streams:64}")
+    private int maxVideoStreams;
+
+    @Value("${lesson.video.stream-timeout-ms:3600000}")
+    private long videoStreamTimeoutMillis;
+
+    // Not a bean, so Boot's default application task executor is left in place
+    private final ThreadPoolTaskExecutor videoStreamExecutor = new ThreadPoolTaskExecutor();
+
+    // LessonVideoController admits at most max-streams, so the queue only holds streams whose
+    // thread is still finishing the previous one and never rejects
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        videoStreamExecutor.setCorePoolSize(maxVideoStreams);
+        videoStreamExecutor.setMaxPoolSize(maxVideoStreams);
+        videoStreamExecutor.setQueueCapacity(maxVideoStreams);
+        videoStreamExecutor.setThreadNamePrefix("video-stream-");
+        videoStreamExecutor.setDaemon(true);
+        videoStreamExecutor.initialize();
+        configurer.setTaskExecutor(videoStreamExecutor);
+        configurer.setDefaultTimeout(videoStreamTimeoutMillis);
+    }
+
+    @PreDestroy
+    public void shutdownVideoStreams() {
+        videoStreamExecutor.shutdown();
+    }
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
         registry.addResourceHandler("/uploads/**")
-                .addResourceLocations("file:uploads/");
+                .addResourceLocations("file:" + storageRoot + "/")
+                .resourceChain(false)
+                .addResolver(new PathResourceResolver() {
+                    // Lesson videos are only served through the enrollment-checked stream endpoint
+                    @Override
+                    protected Resource getResource(String resourcePath, Resource location) throws IOException {
+                        return resourcePath.startsWith(PRIVATE_VIDEO_PREFIX) ? null : super.getResource(resourcePath, location);
+                    }
+                });
     }
 }
\ No newline at end of file
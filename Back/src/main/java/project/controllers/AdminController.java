@@ -12,8 +12,17 @@ import project.models.UserEntity;
 import project.models.UserRoleName;
 import project.repository.InstructorRepository;
 import project.repository.UserRepository;
+import project.service.CourseCache;
+import project.service.CourseRecommender;
+import project.service.CourseSuggestionIndex;
+import project.service.DashboardService;
 import project.service.EmailService;
+import project.service.ImagePipeline;
+import project.service.ProfileImageCache;
+import project.service.UserRelationCache;
+import project.utils.AvatarUrls;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -33,6 +42,27 @@ public class AdminController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private CourseSuggestionIndex courseSuggestionIndex;
+
+    @Autowired
+    private CourseCache courseCache;
+
+    @Autowired
+    private UserRelationCache userRelationCache;
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private CourseRecommender courseRecommender;
+
+    @Autowired
+    private ImagePipeline imagePipeline;
+
+    @Autowired
+    private ProfileImageCache profileImageCache;
+
     @PutMapping("/approve-instructor/{id}")
     public ResponseEntity<?> approveInstructor(@PathVariable Long id) {
         Instructor instructor = instructorRepository.findById(id)
@@ -40,6 +70,7 @@ public class AdminController {
 
         instructor.setStatus(InstructorStatus.APPROVED);
         instructorRepository.save(instructor);
+        courseSuggestionIndex.putInstructor(instructor.getId(), instructor.getUser().getUsername());
 
         // Send approval email
         emailService.sendInstructorStatusUpdateEmail(instructor.getUser().getEmail(), "APPROVED");
@@ -54,6 +85,7 @@ public class AdminController {
 
         instructor.setStatus(InstructorStatus.REJECTED);
         instructorRepository.save(instructor);
+        courseSuggestionIndex.removeInstructor(instructor.getId());
 
         // Send rejection email
         emailService.sendInstructorStatusUpdateEmail(instructor.getUser().getEmail(), "REJECTED");
@@ -104,7 +136,7 @@ public class AdminController {
                     details.put("gender", student.getGender());
                     details.put("phoneNumber", student.getPhoneNumber());
                     details.put("CreationDate",student.getCreationDate());
-                    details.put("image",student.getUserImage());
+                    details.put("avatarUrl", AvatarUrls.of(student.getId(), student.getUserImage()));
 
 
                     return details;
@@ -113,5 +145,23 @@ public class AdminController {
 
         return ResponseEntity.ok(studentDetails);
     }
-}
 
+    @GetMapping("/cache-stats")
+    public ResponseEntity<List<Map<String, Object>>> getCacheStats() {
+        List<Map<String, Object>> stats = new ArrayList<>(courseCache.stats());
+        stats.add(userRelationCache.stats());
+        stats.add(dashboardService.stats());
+        stats.addAll(profileImageCache.stats());
+        return ResponseEntity.ok(stats);
+    }
+
+    @GetMapping("/image-pipeline-stats")
+    public ResponseEntity<Map<String, Object>> getImagePipelineStats() {
+        return ResponseEntity.ok(imagePipeline.stats());
+    }
+
+    @GetMapping("/recommendation-stats")
+    public ResponseEntity<Map<String, Object>> getRecommendationStats() {
+        return ResponseEntity.ok(courseRecommender.stats());
+    }
+}
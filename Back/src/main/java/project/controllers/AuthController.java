@@ -20,8 +20,13 @@ import project.security.JWTGenerator;
 import javax.annotation.PostConstruct;
 import javax.transaction.Transactional;
 import java.util.*;
+import java.util.stream.Collectors;
 
+import project.service.CourseService;
 import project.service.EmailService;
+import project.service.EnrollmentService;
+import project.service.InstructorStatsService;
+import project.service.UserRelationCache;
 import project.service.imageServiceImpl;
 
 @RestController
@@ -51,8 +56,6 @@ public class AuthController {
     @Autowired
     private imageServiceImpl imageService;
 
-    @Autowired
-    private ImageRepository imageRepository;
     @Autowired
     private BookmarkRepository bookmarkRepository;
     @Autowired
@@ -63,6 +66,15 @@ public class AuthController {
     private InstructorRepository instructorRepository;
     @Autowired
     private CourseRepository courseRepository;
+    @Autowired
+    private CourseService courseService;
+
+    @Autowired
+    private EnrollmentService enrollmentService;
+    @Autowired
+    private UserRelationCache userRelationCache;
+    @Autowired
+    private InstructorStatsService instructorStatsService;
 
     @PostConstruct
     public void createDefaultAdminAccount() {
@@ -209,7 +221,7 @@ public class AuthController {
             UserEntity user = userOptional.get();
             Long userId = user.getId();
 
-            imageRepository.deleteByUserEntityId(userId);
+            imageService.deleteImageOf(user);
             bookmarkRepository.deleteByUser(user);
             enrollmentRepository.deleteByStudent(user);
             reviewRepository.deleteByUser(user);
@@ -226,9 +238,12 @@ public class AuthController {
                     }
                 }
                 courseRepository.deleteByInstructorId(instructorId);
+                courseService.evictDeletedInstructor(instructorId, courses.stream().map(Course::getId).collect(Collectors.toList()));
+                instructorStatsService.remove(instructorId);
             }
 
             userRepository.delete(user);
+            userRelationCache.evict(username);
 
             Map<String, String> response = new HashMap<>();
             response.put("message", "Account deleted successfully");
@@ -291,14 +306,24 @@ public class AuthController {
             user.setEmail(userDto.getEmail());
         }
         if (userDto.getPhoneNumber() != null) user.setPhoneNumber(userDto.getPhoneNumber());
+        boolean usernameChanged = false;
         if (userDto.getUsername() != null) {
             if (!userDto.getUsername().equals(user.getUsername()) && userRepository.existsByUsername(userDto.getUsername())) {
                 return ResponseEntity.badRequest().body("Username is already taken!");
             }
+            usernameChanged = !userDto.getUsername().equals(user.getUsername());
             user.setUsername(userDto.getUsername());
         }
 
         userRepository.save(user);
+        if (usernameChanged) {
+            userRelationCache.evict(username);
+            enrollmentService.onUserRenamed();
+        }
+        if (usernameChanged && user.getInstructor() != null) {
+            // Instructor usernames are part of the indexed course documents
+            courseService.onInstructorRenamed(user.getInstructor().getId(), user.getUsername());
+        }
         System.out.println("User updated successfully with username: " + user.getUsername());
         return ResponseEntity.ok(UserDTO.fromEntity(user));
     }
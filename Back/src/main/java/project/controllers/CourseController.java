@@ -5,15 +5,21 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import project.dto.CourseDTO;
+import project.dto.CourseFacetResultDTO;
+import project.dto.CourseFilterDTO;
+import project.dto.CoursePageDTO;
+import project.dto.SuggestionDTO;
 import project.models.Instructor;
 import project.models.UserEntity;
 import project.repository.InstructorRepository;
 import project.repository.UserRepository;
 import project.service.CourseService;
+import project.service.UserRelationCache;
 
 import javax.validation.Valid;
 import java.io.IOException;
@@ -32,6 +38,9 @@ public class CourseController {
     @Autowired
     private InstructorRepository instructorRepository;
 
+    @Autowired
+    private UserRelationCache userRelationCache;
+
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     @PreAuthorize("hasRole('INSTRUCTOR') and @userSecurity.isApprovedInstructor(authentication.principal)")
     public ResponseEntity<CourseDTO> createCourse(
@@ -62,15 +71,76 @@ public class CourseController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<CourseDTO> getCourse(@PathVariable Long id) {
+    public ResponseEntity<CourseDTO> getCourse(@PathVariable Long id, Authentication authentication) {
         CourseDTO course = courseService.getCourseById(id);
-        return ResponseEntity.ok(course);
+        return ResponseEntity.ok(userRelationCache.decorate(course, currentUsername(authentication)));
     }
 
     @GetMapping
-    public ResponseEntity<List<CourseDTO>> getAllCourses() {
+    public ResponseEntity<List<CourseDTO>> getAllCourses(Authentication authentication) {
         List<CourseDTO> courses = courseService.getAllCourses();
-        return ResponseEntity.ok(courses);
+        return ResponseEntity.ok(userRelationCache.decorate(courses, currentUsername(authentication)));
+    }
+
+    @GetMapping("/catalog")
+    public ResponseEntity<CoursePageDTO> getCatalogPage(
+            @RequestParam(required = false, defaultValue = "rating") String sortBy,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            Authentication authentication) {
+        try {
+            CoursePageDTO page = courseService.getCatalogPage(sortBy, cursor, size);
+            page.setCourses(userRelationCache.decorate(page.getCourses(), currentUsername(authentication)));
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/filter")
+    public ResponseEntity<CourseFacetResultDTO> filterCourses(CourseFilterDTO filter, Authentication authentication) {
+        CourseFacetResultDTO result = courseService.filterCourses(filter);
+        result.setCourses(userRelationCache.decorate(result.getCourses(), currentUsername(authentication)));
+        return ResponseEntity.ok(result);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<CourseDTO>> searchCourses(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            Authentication authentication) {
+        List<CourseDTO> courses = courseService.searchCourses(query, page, size);
+        return ResponseEntity.ok(userRelationCache.decorate(courses, currentUsername(authentication)));
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SuggestionDTO>> suggest(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "8") int limit) {
+        return ResponseEntity.ok(courseService.suggest(query, limit));
+    }
+
+    @GetMapping("/trending")
+    public ResponseEntity<List<CourseDTO>> getTrendingCourses(
+            @RequestParam(defaultValue = "24h") String window,
+            @RequestParam(defaultValue = "10") int limit,
+            Authentication authentication) {
+        try {
+            List<CourseDTO> courses = courseService.getTrendingCourses(window, limit);
+            return ResponseEntity.ok(userRelationCache.decorate(courses, currentUsername(authentication)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/{id}/recommendations")
+    public ResponseEntity<List<CourseDTO>> getRecommendedCourses(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "6") int limit,
+            Authentication authentication) {
+        List<CourseDTO> courses = courseService.getRecommendedCourses(id, limit);
+        return ResponseEntity.ok(userRelationCache.decorate(courses, currentUsername(authentication)));
     }
 
     @GetMapping("/my")
@@ -84,4 +154,11 @@ public class CourseController {
         return ResponseEntity.ok(myCourses);
     }
 
+    private static String currentUsername(Authentication authentication) {
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+
 }
\ No newline at end of file
@@ -6,11 +6,15 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import project.dto.DashboardPageDTO;
 import project.dto.EnrollmentDTO;
+import project.dto.LessonHeartbeatDTO;
 import project.models.UserEntity;
 import project.repository.UserRepository;
+import project.service.DashboardService;
 import project.service.EnrollmentService;
 
+import javax.validation.Valid;
 import java.util.List;
 
 @RestController
@@ -20,6 +24,9 @@ public class EnrollmentController {
     @Autowired
     private EnrollmentService enrollmentService;
 
+    @Autowired
+    private DashboardService dashboardService;
+
     @Autowired
     private UserRepository userRepository;
 
@@ -44,6 +51,16 @@ public class EnrollmentController {
         return ResponseEntity.ok(enrollments);
     }
 
+    @GetMapping("/dashboard")
+    public ResponseEntity<DashboardPageDTO> getDashboard(@RequestParam(required = false) Integer page,
+                                                         @RequestParam(required = false) Integer size,
+                                                         Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            throw new IllegalStateException("User is not authenticated");
+        }
+        return ResponseEntity.ok(dashboardService.getDashboard(authentication.getName(), page, size));
+    }
+
     @PutMapping("/{enrollmentId}/progress")
     public ResponseEntity<Void> updateProgress(@PathVariable Long enrollmentId,
                                                @RequestParam int progressPercentage,
@@ -53,6 +70,22 @@ public class EnrollmentController {
         return ResponseEntity.ok().build();
     }
 
+    // Sent by the video player every few seconds; ownership and lesson checks are served from caches
+    @PostMapping("/{enrollmentId}/heartbeat")
+    public ResponseEntity<Void> heartbeat(@PathVariable Long enrollmentId,
+                                          @Valid @RequestBody LessonHeartbeatDTO heartbeat,
+                                          Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            throw new IllegalStateException("User is not authenticated");
+        }
+        try {
+            enrollmentService.recordHeartbeat(enrollmentId, authentication.getName(), heartbeat.getLessonId(), heartbeat.getPositionSeconds());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.accepted().build();
+    }
+
     private Long getUserIdFromAuthentication(Authentication authentication) {
         if (authentication == null || !authentication.isAuthenticated()) {
             throw new IllegalStateException("User is not authenticated");
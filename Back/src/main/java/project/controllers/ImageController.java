@@ -1,15 +1,20 @@
 package project.controllers;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.MediaType;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
-import project.models.Image;
 import project.repository.UserRepository;
 import project.service.ImageServiceInter;
+import project.service.ProfileImageCache;
+import project.utils.AvatarUrls;
 
 import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/image")
@@ -26,6 +31,9 @@ public class ImageController {
     @Autowired
     ImageServiceInter imageServiceInter;
 
+    @Autowired
+    ProfileImageCache profileImageCache;
+
 
 
 
@@ -35,12 +43,21 @@ public class ImageController {
     }
 
     @GetMapping("/get/{idUser}")
-    public ResponseEntity<byte[]> getImageByidUser(@PathVariable Long idUser) {
-        ResponseEntity<Image> imageResponse = imageServiceInter.getImage(idUser);
-        if (imageResponse.getBody() != null) {
+    public ResponseEntity<Resource> getImageByidUser(@PathVariable Long idUser,
+                                                     @RequestParam(value = "v", required = false) String version) throws IOException {
+        Optional<ProfileImageCache.ImageContent> image = profileImageCache.find(idUser);
+        if (image.isPresent()) {
+            // A URL carrying the current content hash never changes content; plain URLs revalidate hourly
+            String cacheControl = AvatarUrls.isCurrentVersion(image.get().getContentHash(), version)
+                    ? CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().getHeaderValue() + ", immutable"
+                    : CacheControl.maxAge(1, TimeUnit.HOURS).cachePublic().getHeaderValue();
+            // The ETag makes Spring answer a matching If-None-Match with 304 and no body
             return ResponseEntity.ok()
-                    .contentType(MediaType.IMAGE_JPEG) // or MediaType.IMAGE_PNG depending on your image type
-                    .body(imageResponse.getBody().getPicByte());
+                    .contentType(image.get().getContentType())
+                    .eTag(image.get().getETag())
+                    .header(HttpHeaders.CACHE_CONTROL, cacheControl)
+                    .header("X-Content-Type-Options", "nosniff")
+                    .body(profileImageCache.body(image.get()));
         }
         return ResponseEntity.notFound().build();
     }
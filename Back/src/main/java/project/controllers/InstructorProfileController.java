@@ -3,17 +3,19 @@ package project.controllers;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import project.dto.CourseDTO;
 import project.dto.InstructorProfileDTO;
 import project.models.Instructor;
-import project.models.UserEntity;
+import project.models.InstructorStats;
 import project.repository.InstructorRepository;
-import project.repository.UserRepository;
+import project.service.CourseService;
+import project.service.InstructorStatsService;
+import project.service.UserRelationCache;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/instructors")
@@ -23,7 +25,13 @@ public class InstructorProfileController {
     private InstructorRepository instructorRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private CourseService courseService;
+
+    @Autowired
+    private UserRelationCache userRelationCache;
+
+    @Autowired
+    private InstructorStatsService instructorStatsService;
 
     @GetMapping(value = "/{instructorId}/profile", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<InstructorProfileDTO> getInstructorProfile(
@@ -31,32 +39,26 @@ public class InstructorProfileController {
             Authentication authentication) {
         Instructor instructor = instructorRepository.findById(instructorId)
                 .orElseThrow(() -> new IllegalStateException("Instructor not found with id: " + instructorId));
-        instructor.getFollowers().size();
-        Long currentUserId = authentication != null ? getUserIdFromAuthentication(authentication) : null;
-        InstructorProfileDTO profileDTO = InstructorProfileDTO.fromEntity(instructor, currentUserId);
+        InstructorStats stats = instructorStatsService.getStats(instructorId);
+        boolean isFollowed = userRelationCache.isFollowing(currentUsername(authentication), instructorId);
+        InstructorProfileDTO profileDTO = InstructorProfileDTO.fromEntity(instructor, stats, isFollowed);
         return ResponseEntity.ok(profileDTO);
     }
 
     @GetMapping(value = "/{instructorId}/courses", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<List<CourseDTO>> getInstructorCourses(@PathVariable Long instructorId) {
-        Instructor instructor = instructorRepository.findById(instructorId)
-                .orElseThrow(() -> new IllegalStateException("Instructor not found with id: " + instructorId));
-        List<CourseDTO> courses = instructor.getCourses().stream()
-                .map(CourseDTO::fromEntity)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(courses);
+    public ResponseEntity<List<CourseDTO>> getInstructorCourses(@PathVariable Long instructorId, Authentication authentication) {
+        if (!instructorRepository.existsById(instructorId)) {
+            throw new IllegalStateException("Instructor not found with id: " + instructorId);
+        }
+        List<CourseDTO> courses = courseService.getCoursesByInstructorId(instructorId);
+        return ResponseEntity.ok(userRelationCache.decorate(courses, currentUsername(authentication)));
     }
 
-    private Long getUserIdFromAuthentication(Authentication authentication) {
-        if (authentication == null || !authentication.isAuthenticated()) {
-            System.out.println("Authentication is null or not authenticated");
+    private static String currentUsername(Authentication authentication) {
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
             return null;
         }
-        String username = authentication.getName();
-        UserEntity user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new IllegalStateException("User not found: " + username));
-        System.out.println("Authenticated user: " + username + ", ID: " + user.getId());
-        return user.getId();
+        return authentication.getName();
     }
 
     @GetMapping("/username/{username}/id")
@@ -0,0 +1,93 @@
+package project.controllers;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import project.dto.LessonDTO;
+import project.dto.VideoUploadCompleteDTO;
+import project.dto.VideoUploadDTO;
+import project.dto.VideoUploadRequestDTO;
+import project.service.VideoUploadService;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.validation.Valid;
+import java.io.IOException;
+
+// Resumable lesson video uploads: create a session, PUT raw chunks (in any order, in parallel),
+// check which chunks are missing after a dropped connection, then complete into a lesson.
+@RestController
+@RequestMapping("/api/courses/{courseId}/lessons/uploads")
+@PreAuthorize("hasRole('INSTRUCTOR') and @userSecurity.isApprovedInstructor(authentication.principal) and @userSecurity.isOwnerOfCourse(authentication.principal, #courseId)")
+public class LessonUploadController {
+
+    @Autowired
+    private VideoUploadService videoUploadService;
+
+    @PostMapping
+    public ResponseEntity<VideoUploadDTO> createUpload(@PathVariable Long courseId,
+                                                       @Valid @RequestBody VideoUploadRequestDTO request,
+                                                       Authentication authentication) {
+        try {
+            return new ResponseEntity<>(videoUploadService.createUpload(courseId, authentication.getName(), request), HttpStatus.CREATED);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/{uploadId}")
+    public ResponseEntity<VideoUploadDTO> getUpload(@PathVariable Long courseId,
+                                                    @PathVariable String uploadId,
+                                                    Authentication authentication) {
+        return ResponseEntity.ok(videoUploadService.getUpload(courseId, uploadId, authentication.getName()));
+    }
+
+    @PutMapping(value = "/{uploadId}/chunks/{index}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<VideoUploadDTO> putChunk(@PathVariable Long courseId,
+                                                   @PathVariable String uploadId,
+                                                   @PathVariable int index,
+                                                   @RequestHeader(value = "X-Chunk-SHA256", required = false) String chunkDigest,
+                                                   HttpServletRequest request,
+                                                   Authentication authentication) throws IOException {
+        try {
+            VideoUploadDTO upload = videoUploadService.putChunk(courseId, uploadId, index, authentication.getName(),
+                    request.getInputStream(), chunkDigest);
+            return ResponseEntity.ok(upload);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    @PostMapping("/{uploadId}/complete")
+    public ResponseEntity<LessonDTO> completeUpload(@PathVariable Long courseId,
+                                                    @PathVariable String uploadId,
+                                                    @RequestBody VideoUploadCompleteDTO request,
+                                                    Authentication authentication) {
+        try {
+            LessonDTO lesson = videoUploadService.completeUpload(courseId, uploadId, authentication.getName(),
+                    request.getLessonId(), request.getTitle(), request.getChecksum());
+            return ResponseEntity.ok(lesson);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    @DeleteMapping("/{uploadId}")
+    public ResponseEntity<Void> abortUpload(@PathVariable Long courseId,
+                                            @PathVariable String uploadId,
+                                            Authentication authentication) {
+        try {
+            videoUploadService.abortUpload(courseId, uploadId, authentication.getName());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,204 @@
+package project.controllers;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import project.service.LessonVideoService;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Streams lesson videos with single-range support (Range, If-Range) and ETag/Last-Modified
+// validators. By default the range is handed to Tomcat's sendfile, which needs no thread and no copy.
+// With a rate cap configured, or where the connector has no sendfile, the range is copied through a
+// buffer on a video stream thread, and a capped stream holds that thread for its whole duration.
+@RestController
+@RequestMapping("/api/courses/{courseId}/lessons")
+public class LessonVideoController {
+
+    private static final Logger logger = LoggerFactory.getLogger(LessonVideoController.class);
+
+    private static final long CHUNK_SIZE = 256 * 1024;
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    @Autowired
+    private LessonVideoService lessonVideoService;
+
+    // Per-connection cap after the initial burst; 0 (the default) disables the cap and allows sendfile.
+    // Each capped viewer pins one of max-streams threads, so size max-streams to the expected concurrent viewers.
+    @Value("${lesson.video.rate-limit-bytes-per-second:0}")
+    private long rateLimitBytesPerSecond;
+
+    @Value("${lesson.video.burst-bytes:8388608}")
+    private long burstBytes;
+
+    // Capped and non-sendfile streams are written on the bounded video stream executor (see WebConfig),
+    // never on a Tomcat worker; past max-streams concurrent streams further requests get a 503
+    private final Semaphore streamPermits;
+
+    public LessonVideoController(@Value("${lesson.video.max-streams:64}") int maxStreams) {
+        this.streamPermits = new Semaphore(maxStreams);
+    }
+
+    @GetMapping("/{lessonId}/video")
+    public StreamingResponseBody streamVideo(@PathVariable Long courseId,
+                                             @PathVariable Long lessonId,
+                                             Authentication authentication,
+                                             HttpServletRequest request,
+                                             HttpServletResponse response) throws IOException {
+        boolean admin = authentication.getAuthorities().contains(new SimpleGrantedAuthority("ROLE_ADMIN"));
+        LessonVideoService.VideoFile video = lessonVideoService.resolve(courseId, lessonId, authentication.getName(), admin);
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.maxAge(1, TimeUnit.DAYS).cachePrivate().getHeaderValue());
+        // Sets ETag and Last-Modified, and answers 304 / 412 on its own
+        if (new ServletWebRequest(request, response).checkNotModified(video.getETag(), video.getLastModified())) {
+            return null;
+        }
+
+        long length = video.getLength();
+        long start = 0;
+        long end = length - 1;
+        boolean partial = false;
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader != null && ifRangeMatches(request, video)) {
+            List<HttpRange> ranges = parseRanges(rangeHeader);
+            // Multipart byte ranges are not worth supporting for video; such requests get the full body
+            if (ranges.size() == 1) {
+                try {
+                    start = ranges.get(0).getRangeStart(length);
+                    end = ranges.get(0).getRangeEnd(length);
+                } catch (IllegalArgumentException e) {
+                    start = length;
+                }
+                // HttpRange does not check the first position against the length; an empty file satisfies no range
+                if (start >= length || end < start) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    response.sendError(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                    return null;
+                }
+                partial = true;
+            }
+        }
+
+        long count = end - start + 1;
+        boolean sendfile = rateLimitBytesPerSecond <= 0 && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT));
+        boolean streamed = !"HEAD".equals(request.getMethod()) && count > 0 && !sendfile;
+        if (streamed && !streamPermits.tryAcquire()) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, "5");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Too many video streams, please retry");
+            return null;
+        }
+
+        if (partial) {
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        }
+        response.setContentType(video.getContentType().toString());
+        response.setContentLengthLong(count);
+        if (!streamed) {
+            if (sendfile && count > 0 && !"HEAD".equals(request.getMethod())) {
+                // The connector writes the region with sendfile once this request returns
+                request.setAttribute(SENDFILE_FILENAME, video.getPath().toString());
+                request.setAttribute(SENDFILE_START, start);
+                request.setAttribute(SENDFILE_END, end + 1);
+            }
+            return null;
+        }
+
+        long position = start;
+        return out -> {
+            try (FileChannel file = FileChannel.open(video.getPath(), StandardOpenOption.READ)) {
+                transfer(file, position, count, Channels.newChannel(out));
+            } catch (IOException e) {
+                // Players routinely drop the connection when seeking
+                logger.debug("Video stream for lesson {} ended early: {}", lessonId, e.getMessage());
+            } finally {
+                streamPermits.release();
+            }
+        };
+    }
+
+    private void transfer(FileChannel file, long position, long count, WritableByteChannel out) throws IOException {
+        long startedAt = System.nanoTime();
+        long sent = 0;
+        while (sent < count) {
+            long written = file.transferTo(position + sent, Math.min(CHUNK_SIZE, count - sent), out);
+            if (written <= 0) {
+                break;
+            }
+            sent += written;
+            if (!throttle(sent, startedAt)) {
+                break;
+            }
+        }
+    }
+
+    // Sleeps until the bytes sent past the burst allowance fit the configured rate. This parks a video
+    // stream thread (not a request thread) for as long as the stream lasts.
+    private boolean throttle(long sent, long startedAt) {
+        if (rateLimitBytesPerSecond <= 0 || sent <= burstBytes) {
+            return true;
+        }
+        long dueNanos = (sent - burstBytes) * 1_000_000_000L / rateLimitBytesPerSecond;
+        long aheadMillis = TimeUnit.NANOSECONDS.toMillis(dueNanos - (System.nanoTime() - startedAt));
+        if (aheadMillis > 0) {
+            try {
+                Thread.sleep(aheadMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // A stale If-Range validator means the client's partial copy is outdated, so the whole file is sent
+    private static boolean ifRangeMatches(HttpServletRequest request, LessonVideoService.VideoFile video) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(video.getETag());
+        }
+        try {
+            return request.getDateHeader(HttpHeaders.IF_RANGE) / 1000 == video.getLastModified() / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static List<HttpRange> parseRanges(String rangeHeader) {
+        try {
+            return HttpRange.parseRanges(rangeHeader);
+        } catch (IllegalArgumentException e) {
+            return List.of();
+        }
+    }
+}
@@ -6,6 +6,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import project.dto.ReviewDTO;
+import project.dto.ReviewPageDTO;
 import project.models.UserEntity;
 import project.repository.UserRepository;
 import project.service.ReviewService;
@@ -56,6 +57,18 @@ public class ReviewController {
         return ResponseEntity.ok(reviews);
     }
 
+    @GetMapping("/courses/{courseId}/page")
+    public ResponseEntity<ReviewPageDTO> getReviewPage(@PathVariable Long courseId,
+                                                       @RequestParam(required = false, defaultValue = "latest") String sortBy,
+                                                       @RequestParam(required = false) String cursor,
+                                                       @RequestParam(required = false) Integer size) {
+        try {
+            return ResponseEntity.ok(reviewService.getReviewPage(courseId, sortBy, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     private UserEntity getUserFromAuthentication(Authentication authentication) {
         return userRepository.findByUsername(authentication.getName())
                 .orElseThrow(() -> new RuntimeException("User not found"));
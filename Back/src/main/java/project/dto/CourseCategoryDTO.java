@@ -1,7 +1,12 @@
 package project.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
 import project.models.CourseCategory;
+import project.utils.ImageRendition;
+
+import java.util.Map;
 
 @Data
 public class CourseCategoryDTO {
@@ -18,4 +23,11 @@ public class CourseCategoryDTO {
         dto.setImageUrl(category.getImageUrl());
         return dto;
     }
+
+    // thumb/card/hero URLs derived from imageUrl
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    public Map<String, String> getImageRenditions() {
+        return ImageRendition.urlsFor(imageUrl);
+    }
 }
\ No newline at end of file
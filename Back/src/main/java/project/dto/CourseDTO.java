@@ -1,15 +1,21 @@
 package project.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Getter;
 import lombok.Setter;
 import project.models.Course;
 import project.models.CourseLanguage;
 import project.models.CourseLevel;
 import project.models.PricingType;
+import project.utils.ImageRendition;
 
 import javax.validation.constraints.NotNull;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 @Getter
 @Setter
@@ -21,6 +27,9 @@ public class CourseDTO {
     private PricingType pricingType;
     private Double rating;
     private int totalReviews;
+    // Star (1-5) -> number of reviews; only filled in for course detail, list projections leave it out
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Map<Integer, Integer> ratingDistribution;
     private String imageUrl;
     @NotNull
     private CourseLevel level;
@@ -29,9 +38,64 @@ public class CourseDTO {
     private int totalStudents;
     private LocalDate lastUpdate;
     private Long categoryId;
+    private Long instructorId;
     private String instructorName;
+    // Relationship flags for the requesting user, filled in by UserRelationCache.decorate
     private boolean isBookmarked;
+    private boolean isEnrolled;
+    private boolean isFollowingInstructor;
 
+    public CourseDTO() {
+    }
+
+    // Used by the JPQL constructor projections in CourseRepository
+    public CourseDTO(Long id, String title, String description, BigDecimal price, PricingType pricingType,
+                     Double rating, int totalReviews, String imageUrl, CourseLevel level, CourseLanguage language,
+                     int totalStudents, LocalDate lastUpdate, Long categoryId, Long instructorId, String instructorName) {
+        this.id = id;
+        this.title = title;
+        this.description = description;
+        this.price = price;
+        this.pricingType = pricingType;
+        this.rating = rating;
+        this.totalReviews = totalReviews;
+        this.imageUrl = imageUrl;
+        this.level = level;
+        this.language = language;
+        this.totalStudents = totalStudents;
+        this.lastUpdate = lastUpdate;
+        this.categoryId = categoryId;
+        this.instructorId = instructorId;
+        this.instructorName = instructorName;
+    }
+
+    // Used by CourseRepository.COURSE_DETAIL_DTO_SELECT
+    public CourseDTO(Long id, String title, String description, BigDecimal price, PricingType pricingType,
+                     Double rating, int totalReviews, String imageUrl, CourseLevel level, CourseLanguage language,
+                     int totalStudents, LocalDate lastUpdate, Long categoryId, Long instructorId, String instructorName,
+                     int oneStar, int twoStar, int threeStar, int fourStar, int fiveStar) {
+        this(id, title, description, price, pricingType, rating, totalReviews, imageUrl, level, language,
+                totalStudents, lastUpdate, categoryId, instructorId, instructorName);
+        this.ratingDistribution = distribution(oneStar, twoStar, threeStar, fourStar, fiveStar);
+    }
+
+    // Cached DTOs are shared between requests, so per-user flags are always set on a copy
+    public CourseDTO copy() {
+        CourseDTO dto = new CourseDTO(id, title, description, price, pricingType, rating, totalReviews, imageUrl,
+                level, language, totalStudents, lastUpdate, categoryId, instructorId, instructorName);
+        dto.setBookmarked(isBookmarked);
+        dto.setEnrolled(isEnrolled);
+        dto.setFollowingInstructor(isFollowingInstructor);
+        dto.setRatingDistribution(ratingDistribution);
+        return dto;
+    }
+
+    // thumb/card/hero URLs derived from imageUrl
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    public Map<String, String> getImageRenditions() {
+        return ImageRendition.urlsFor(imageUrl);
+    }
 
     public static CourseDTO fromEntity(Course course) {
         CourseDTO dto = new CourseDTO();
@@ -42,6 +106,8 @@ public class CourseDTO {
         dto.setPricingType(course.getPricingType());
         dto.setRating(course.getRating());
         dto.setTotalReviews(course.getTotalReviews());
+        dto.setRatingDistribution(distribution(course.getOneStarReviews(), course.getTwoStarReviews(),
+                course.getThreeStarReviews(), course.getFourStarReviews(), course.getFiveStarReviews()));
         dto.setImageUrl(course.getImageUrl());
         dto.setLevel(course.getLevel());
         dto.setLanguage(course.getLanguage());
@@ -50,9 +116,22 @@ public class CourseDTO {
         if (course.getCategory() != null) {
             dto.setCategoryId(course.getCategory().getId());
         }
+        if (course.getInstructor() != null) {
+            dto.setInstructorId(course.getInstructor().getId());
+        }
         if (course.getInstructor() != null && course.getInstructor().getUser() != null) {
             dto.setInstructorName(course.getInstructor().getUser().getUsername());
         }
         return dto;
     }
-}
\ No newline at end of file
+
+    private static Map<Integer, Integer> distribution(int oneStar, int twoStar, int threeStar, int fourStar, int fiveStar) {
+        Map<Integer, Integer> distribution = new LinkedHashMap<>();
+        distribution.put(1, oneStar);
+        distribution.put(2, twoStar);
+        distribution.put(3, threeStar);
+        distribution.put(4, fourStar);
+        distribution.put(5, fiveStar);
+        return Collections.unmodifiableMap(distribution);
+    }
+}
@@ -0,0 +1,18 @@
+package project.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+import java.util.Map;
+
+@Getter
+@Setter
+public class CourseFacetResultDTO {
+    private List<CourseDTO> courses;
+    private long totalMatches;
+    private int page;
+    private int size;
+    // Dimension name -> facet value -> number of matching courses
+    private Map<String, Map<String, Long>> facets;
+}
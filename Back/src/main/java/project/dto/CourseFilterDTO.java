@@ -0,0 +1,24 @@
+package project.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+import project.models.CourseLanguage;
+import project.models.CourseLevel;
+import project.models.PricingType;
+
+import java.math.BigDecimal;
+
+@Getter
+@Setter
+public class CourseFilterDTO {
+    private Long categoryId;
+    private CourseLevel level;
+    private CourseLanguage language;
+    private PricingType pricingType;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private Double minRating;
+    private String sortBy = "rating"; // "rating" or "newest"
+    private int page = 0;
+    private int size = 20;
+}
@@ -0,0 +1,20 @@
+package project.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class CoursePageDTO {
+    private List<CourseDTO> courses;
+    private String nextCursor; // Null when there are no more pages
+    private boolean hasMore;
+
+    public CoursePageDTO(List<CourseDTO> courses, String nextCursor) {
+        this.courses = courses;
+        this.nextCursor = nextCursor;
+        this.hasMore = nextCursor != null;
+    }
+}
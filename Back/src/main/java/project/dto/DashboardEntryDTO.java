@@ -0,0 +1,40 @@
+package project.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+import project.models.EnrollmentStatus;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+public class DashboardEntryDTO {
+    private Long enrollmentId;
+    private EnrollmentStatus status;
+    private int progressPercentage;
+    private int completedLessons;
+    private int totalLessons;
+    private LocalDateTime enrollmentDate;
+    private LocalDateTime lastAccessedDate;
+    private Long lastLessonId;
+    private Integer lastPositionSeconds;
+    private CourseDTO course;
+    private LessonDTO nextLesson; // Null once every lesson is completed
+
+    // Cached pages are shared between requests, so read-time changes are made on a copy
+    public DashboardEntryDTO copy() {
+        DashboardEntryDTO entry = new DashboardEntryDTO();
+        entry.setEnrollmentId(enrollmentId);
+        entry.setStatus(status);
+        entry.setProgressPercentage(progressPercentage);
+        entry.setCompletedLessons(completedLessons);
+        entry.setTotalLessons(totalLessons);
+        entry.setEnrollmentDate(enrollmentDate);
+        entry.setLastAccessedDate(lastAccessedDate);
+        entry.setLastLessonId(lastLessonId);
+        entry.setLastPositionSeconds(lastPositionSeconds);
+        entry.setCourse(course);
+        entry.setNextLesson(nextLesson);
+        return entry;
+    }
+}
@@ -0,0 +1,22 @@
+package project.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class DashboardPageDTO {
+    private List<DashboardEntryDTO> entries;
+    private int page;
+    private int size;
+    private boolean hasMore;
+
+    public DashboardPageDTO(List<DashboardEntryDTO> entries, int page, int size, boolean hasMore) {
+        this.entries = entries;
+        this.page = page;
+        this.size = size;
+        this.hasMore = hasMore;
+    }
+}
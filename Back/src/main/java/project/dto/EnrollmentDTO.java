@@ -17,6 +17,8 @@ public class EnrollmentDTO {
     private int progressPercentage;
     private LocalDateTime enrollmentDate;
     private LocalDateTime lastAccessedDate;
+    private Long lastLessonId;
+    private Integer lastPositionSeconds;
 
     // Add any other relevant course information you want to include
 }
\ No newline at end of file
@@ -1,14 +1,18 @@
 package project.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Getter;
 import lombok.Setter;
 import project.models.Event;
 import project.repository.EventRegistrationRepository;
 import project.repository.EventRepository; // Add this import
+import project.utils.ImageRendition;
 
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 import java.time.LocalDateTime;
+import java.util.Map;
 
 @Getter
 @Setter
@@ -57,6 +61,13 @@ public class EventDTO {
         return dto;
     }
 
+    // thumb/card/hero URLs derived from imageUrl
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    public Map<String, String> getImageRenditions() {
+        return ImageRendition.urlsFor(imageUrl);
+    }
+
     public void setIsOnline(boolean isOnline) {
         this.isOnline = isOnline;
     }
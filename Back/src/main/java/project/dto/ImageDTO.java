@@ -2,12 +2,14 @@ package project.dto;
 
 import lombok.Data;
 import project.models.Image;
+import project.utils.AvatarUrls;
 
 @Data
 public class ImageDTO {
     private Long id;
     private String name;
-    // Remove picByte from general responses
+    // Versioned URL of the image bytes; the bytes themselves are never part of the JSON
+    private String url;
 
     public static ImageDTO fromEntity(Image image) {
         if (image == null) return null;
@@ -15,6 +17,7 @@ public class ImageDTO {
         ImageDTO dto = new ImageDTO();
         dto.setId(image.getId());
         dto.setName(image.getName());
+        dto.setUrl(AvatarUrls.of(image.getUserEntity() != null ? image.getUserEntity().getId() : null, image));
         return dto;
     }
 }
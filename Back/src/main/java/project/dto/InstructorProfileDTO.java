@@ -3,7 +3,8 @@ package project.dto;
 import lombok.Getter;
 import lombok.Setter;
 import project.models.Instructor;
-import project.models.Course; // Add this import
+import project.models.InstructorStats;
+import project.utils.AvatarUrls;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 @Getter
@@ -36,34 +37,22 @@ public class InstructorProfileDTO {
     @JsonProperty("totalStudents")
     private int totalStudents; // New field
 
-    @JsonProperty("imageBytes")
-    private byte[] imageBytes;
+    @JsonProperty("avatarUrl")
+    private String avatarUrl;
 
-    public static InstructorProfileDTO fromEntity(Instructor instructor, Long currentUserId) {
+    // Counts come from the instructor_stats read model, so the follower and course lists are never loaded
+    public static InstructorProfileDTO fromEntity(Instructor instructor, InstructorStats stats, boolean isFollowed) {
         InstructorProfileDTO dto = new InstructorProfileDTO();
         dto.setUsername(instructor.getUser().getUsername());
         dto.setFirstName(instructor.getUser().getFirstName());
         dto.setLastName(instructor.getUser().getLastName());
-        dto.setFollowersCount(instructor.getFollowers().size());
-        dto.setCoursesCount(instructor.getCourses().size());
-        dto.setTotalReviews(instructor.getCourses().stream()
-                .mapToInt(Course::getTotalReviews)
-                .sum());
-        dto.setAverageRating(instructor.getCourses().stream()
-                .mapToDouble(Course::getRating) // Ensure Course has getRating()
-                .average()
-                .orElse(0.0));
-        dto.setTotalStudents(instructor.getCourses().stream()
-                .mapToInt(Course::getTotalStudents) // Ensure Course has getTotalStudents()
-                .sum());
-        boolean isFollowed = currentUserId != null && instructor.getFollowers().stream()
-                .anyMatch(user -> user.getId().equals(currentUserId));
+        dto.setFollowersCount(stats.getFollowersCount());
+        dto.setCoursesCount(stats.getCoursesCount());
+        dto.setTotalReviews(stats.getTotalReviews());
+        dto.setAverageRating(stats.getAverageRating());
+        dto.setTotalStudents(stats.getTotalStudents());
         dto.setIsFollowed(isFollowed);
-        if (instructor.getUser().getUserImage() != null) {
-            dto.setImageBytes(instructor.getUser().getUserImage().getPicByte());
-        } else {
-            dto.setImageBytes(null);
-        }
+        dto.setAvatarUrl(AvatarUrls.of(instructor.getUser().getId(), instructor.getUser().getUserImage()));
         return dto;
     }
 
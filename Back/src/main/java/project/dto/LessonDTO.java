@@ -7,13 +7,19 @@ import project.models.Lesson;
 public class LessonDTO {
     private Long id;
     private String title;
-    private String videoUrl;
+    private String streamUrl; // Authenticated, range-aware video endpoint; the stored file itself is not public
 
     public static LessonDTO fromEntity(Lesson lesson) {
         LessonDTO dto = new LessonDTO();
         dto.setId(lesson.getId());
         dto.setTitle(lesson.getTitle());
-        dto.setVideoUrl(lesson.getVideoUrl());
+        if (lesson.getVideoUrl() != null && lesson.getCourse() != null) {
+            dto.setStreamUrl(streamUrlOf(lesson.getCourse().getId(), lesson.getId()));
+        }
         return dto;
     }
+
+    public static String streamUrlOf(Long courseId, Long lessonId) {
+        return "/api/courses/" + courseId + "/lessons/" + lessonId + "/video";
+    }
 }
\ No newline at end of file
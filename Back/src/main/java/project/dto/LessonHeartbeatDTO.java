@@ -0,0 +1,18 @@
+package project.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+@Getter
+@Setter
+public class LessonHeartbeatDTO {
+    @NotNull
+    private Long lessonId;
+
+    @NotNull
+    @Min(0)
+    private Integer positionSeconds;
+}
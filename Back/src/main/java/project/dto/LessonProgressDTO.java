@@ -2,6 +2,8 @@ package project.dto;
 
 import lombok.Getter;
 import lombok.Setter;
+import project.models.Enrollment;
+import project.models.Lesson;
 import project.models.LessonProgress;
 
 import java.time.LocalDateTime;
@@ -15,13 +17,13 @@ public class LessonProgressDTO {
     private LessonProgress.LessonStatus status;
     private LocalDateTime completedAt;
 
-    public static LessonProgressDTO fromEntity(LessonProgress lessonProgress) {
+    // Progress is a bit per lesson on the enrollment, so there is no row id to report
+    public static LessonProgressDTO of(Enrollment enrollment, Lesson lesson, boolean completed, LocalDateTime completedAt) {
         LessonProgressDTO dto = new LessonProgressDTO();
-        dto.setId(lessonProgress.getId());
-        dto.setEnrollmentId(lessonProgress.getEnrollment().getId());
-        dto.setLessonId(lessonProgress.getLesson().getId());
-        dto.setStatus(lessonProgress.getStatus());
-        dto.setCompletedAt(lessonProgress.getCompletedAt());
+        dto.setEnrollmentId(enrollment.getId());
+        dto.setLessonId(lesson.getId());
+        dto.setStatus(completed ? LessonProgress.LessonStatus.COMPLETED : LessonProgress.LessonStatus.PENDING);
+        dto.setCompletedAt(completed ? completedAt : null);
         return dto;
     }
 }
\ No newline at end of file
@@ -30,6 +30,20 @@ public class ReviewDTO {
 
     private String username;
 
+    public ReviewDTO() {
+    }
+
+    // Used by the JPQL constructor projections in ReviewRepository
+    public ReviewDTO(Long id, Double rating, String comment, LocalDateTime createdAt, Long courseId, Long userId, String username) {
+        this.id = id;
+        this.rating = rating;
+        this.comment = comment;
+        this.createdAt = createdAt;
+        this.courseId = courseId;
+        this.userId = userId;
+        this.username = username;
+    }
+
     public static ReviewDTO fromEntity(Review review) {
         ReviewDTO dto = new ReviewDTO();
         dto.setId(review.getId());
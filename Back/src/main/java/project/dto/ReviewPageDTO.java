@@ -0,0 +1,30 @@
+package project.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+import java.util.Map;
+
+@Getter
+@Setter
+public class ReviewPageDTO {
+    private List<ReviewDTO> reviews;
+    private String nextCursor; // Null when there are no more pages
+    private boolean hasMore;
+
+    // Course-level summary, only sent with the first page
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Map<Integer, Integer> ratingDistribution;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer totalReviews;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double averageRating;
+
+    public ReviewPageDTO(List<ReviewDTO> reviews, String nextCursor) {
+        this.reviews = reviews;
+        this.nextCursor = nextCursor;
+        this.hasMore = nextCursor != null;
+    }
+}
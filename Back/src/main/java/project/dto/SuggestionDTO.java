@@ -0,0 +1,18 @@
+package project.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class SuggestionDTO {
+    private String text;
+    private String type; // COURSE, CATEGORY or INSTRUCTOR
+    private Long id;
+
+    public SuggestionDTO(String text, String type, Long id) {
+        this.text = text;
+        this.type = type;
+        this.id = id;
+    }
+}
@@ -10,6 +10,7 @@ import java.util.Date;
 import java.util.List;
 import java.util.stream.Collectors;
 import project.models.Instructor;
+import project.utils.AvatarUrls;
 
 @Getter
 @Setter
@@ -25,6 +26,7 @@ public class UserDTO {
     private Date creationDate;
     private InstructorDTO instructor;
     private ImageDTO image;
+    private String avatarUrl;
     private boolean twoFactorEnabled;
     private List<Long> followedInstructorIds;
 
@@ -46,6 +48,7 @@ public class UserDTO {
 
         if (user.getUserImage() != null) {
             dto.setImage(ImageDTO.fromEntity(user.getUserImage()));
+            dto.setAvatarUrl(AvatarUrls.of(user.getId(), user.getUserImage()));
         }
 
         if (user.getInstructor() != null) {
@@ -0,0 +1,14 @@
+package project.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class VideoUploadCompleteDTO {
+    // Replaces the video of this lesson when set, otherwise a new lesson is created with the title
+    private Long lessonId;
+    private String title;
+    // Optional: hex SHA-256 over the SHA-256 of every chunk in order, each chunk being chunkSize bytes
+    private String checksum;
+}
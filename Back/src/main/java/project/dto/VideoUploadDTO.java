@@ -0,0 +1,48 @@
+package project.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+import project.models.VideoUpload;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+@Getter
+@Setter
+public class VideoUploadDTO {
+    private String uploadId;
+    private Long courseId;
+    private String fileName;
+    private long totalSize;
+    private int chunkSize;
+    private int chunkCount;
+    private int receivedCount;
+    private long bytesReceived;
+    private List<Integer> missingChunks;
+
+    public static VideoUploadDTO fromEntity(VideoUpload upload) {
+        VideoUploadDTO dto = new VideoUploadDTO();
+        dto.setUploadId(upload.getId());
+        dto.setCourseId(upload.getCourseId());
+        dto.setFileName(upload.getFileName());
+        dto.setTotalSize(upload.getTotalSize());
+        dto.setChunkSize(upload.getChunkSize());
+        dto.setChunkCount(upload.getChunkCount());
+        dto.setReceivedCount(upload.getReceivedCount());
+
+        BitSet received = BitSet.valueOf(upload.getReceivedChunks());
+        List<Integer> missing = new ArrayList<>();
+        long bytes = 0;
+        for (int i = 0; i < upload.getChunkCount(); i++) {
+            if (received.get(i)) {
+                bytes += upload.chunkLength(i);
+            } else {
+                missing.add(i);
+            }
+        }
+        dto.setBytesReceived(bytes);
+        dto.setMissingChunks(missing);
+        return dto;
+    }
+}
@@ -0,0 +1,20 @@
+package project.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.Positive;
+
+@Getter
+@Setter
+public class VideoUploadRequestDTO {
+    @NotBlank
+    private String fileName;
+
+    @NotBlank
+    private String contentType;
+
+    @Positive
+    private long totalSize;
+}
@@ -0,0 +1,31 @@
+package project.models;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+// Reference count of a content-addressed blob shared by several rows. A blob whose count has been
+// zero for a grace period is deleted by ImageContentStore's collector.
+@Entity
+@Getter
+@Setter
+@Table(name = "blob_references", indexes = {
+        @Index(name = "idx_blob_reference_count_updated", columnList = "ref_count, updated_at")
+})
+public class BlobReference {
+
+    @Id
+    @Column(name = "storage_key")
+    private String storageKey;
+
+    @Column(name = "content_hash", length = 64, nullable = false)
+    private String contentHash;
+
+    @Column(name = "ref_count", nullable = false)
+    private long refCount;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
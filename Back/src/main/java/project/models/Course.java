@@ -3,6 +3,7 @@ package project.models;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.DynamicUpdate;
 
 import javax.persistence.*;
 import javax.validation.constraints.*;
@@ -14,7 +15,12 @@ import java.util.List;
 @Entity
 @Getter
 @Setter
-@Table(name = "courses")
+@DynamicUpdate // counters are maintained by atomic UPDATEs, so saves must only write the columns they changed
+@Table(name = "courses", indexes = {
+        @Index(name = "idx_course_rating_id", columnList = "rating, id"),
+        @Index(name = "idx_course_students_id", columnList = "totalStudents, id"),
+        @Index(name = "idx_course_last_update_id", columnList = "lastUpdate, id")
+})
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Course {
 
@@ -46,6 +52,25 @@ public class Course {
     @Min(0)
     private int totalReviews;
 
+    // Running review aggregates, updated with atomic increments by ReviewService
+    @Column(nullable = false, columnDefinition = "double not null default 0")
+    private double ratingSum;
+
+    @Column(nullable = false, columnDefinition = "int not null default 0")
+    private int oneStarReviews;
+
+    @Column(nullable = false, columnDefinition = "int not null default 0")
+    private int twoStarReviews;
+
+    @Column(nullable = false, columnDefinition = "int not null default 0")
+    private int threeStarReviews;
+
+    @Column(nullable = false, columnDefinition = "int not null default 0")
+    private int fourStarReviews;
+
+    @Column(nullable = false, columnDefinition = "int not null default 0")
+    private int fiveStarReviews;
+
     private String imageUrl;
 
     @Enumerated(EnumType.STRING)
@@ -1,8 +1,10 @@
 package project.models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.DynamicUpdate;
 
 import javax.persistence.*;
 import java.time.LocalDateTime;
@@ -12,7 +14,10 @@ import java.util.List;
 @Entity
 @Getter
 @Setter
-@Table(name = "enrollments")
+@DynamicUpdate // heartbeat columns are written by EnrollmentHeartbeatBuffer, so saves must only write the columns they changed
+@Table(name = "enrollments", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_enrollment_user_course", columnNames = {"user_id", "course_id"})
+})
 public class Enrollment {
 
     @Id
@@ -38,6 +43,18 @@ public class Enrollment {
 
     private LocalDateTime lastAccessedDate;
 
+    // Resume point reported by the video player heartbeat
+    private Long lastLessonId;
+
+    private Integer lastPositionSeconds;
+
+    // Bit n is set once the lesson with ordinal n is completed, in java.util.BitSet byte order
+    @JsonIgnore
+    @Column(name = "completed_lessons", columnDefinition = "blob")
+    private byte[] completedLessons;
+
+    @Column(columnDefinition = "int not null default 0")
+    private int completedLessonsCount;
 
     @OneToMany(mappedBy = "enrollment", cascade = CascadeType.ALL)
     @JsonIgnoreProperties("enrollment")
@@ -6,6 +6,8 @@ import lombok.Setter;
 
 import javax.persistence.*;
 
+// Profile image metadata. The bytes live in the BlobStore under storageKey, so loading a user
+// (and its image row) never reads image data; the legacy picByte column is migrated on startup.
 @Entity
 @Getter
 @Setter
@@ -16,9 +18,15 @@ public class Image {
     private Long id;
     private String name;
 
-    @Lob
-    @Column(name = "picByte",columnDefinition = "LONGBLOB")
-    byte[] picByte;
+    @Column(name = "storage_key")
+    private String storageKey;
+
+    // SHA-256 of the stored bytes, hex encoded
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    @Column(name = "content_type", length = 100)
+    private String contentType;
 
     @JsonIgnore
     @OneToOne
@@ -0,0 +1,34 @@
+package project.models;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.persistence.*;
+
+// Denormalized per-instructor totals backing the public profile. Kept current by delta updates from
+// the follow, course, enrollment and review services and reconciled from source tables nightly.
+@Entity
+@Getter
+@Setter
+@Table(name = "instructor_stats")
+public class InstructorStats {
+
+    @Id
+    @Column(name = "instructor_id")
+    private Long instructorId;
+
+    private int followersCount;
+
+    private int coursesCount;
+
+    private int totalStudents;
+
+    private int totalReviews;
+
+    // Sum of the instructor's course ratings; the profile shows ratingSum / coursesCount
+    private double ratingSum;
+
+    public double getAverageRating() {
+        return coursesCount > 0 ? ratingSum / coursesCount : 0.0;
+    }
+}
@@ -11,7 +11,9 @@ import java.util.List;
 @Entity
 @Getter
 @Setter
-@Table(name = "lessons")
+@Table(name = "lessons", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_lesson_course_ordinal", columnNames = {"course_id", "lesson_ordinal"})
+})
 public class Lesson {
 
     @Id
@@ -23,6 +25,10 @@ public class Lesson {
 
     private String videoUrl;
 
+    // Stable position within the course, used as the bit index of Enrollment.completedLessons; never reused
+    @Column(name = "lesson_ordinal")
+    private Integer ordinal;
+
     @ManyToOne
     @JoinColumn(name = "course_id")
     @JsonIgnoreProperties("lessons")
@@ -12,7 +12,10 @@ import java.time.LocalDateTime;
 @Entity
 @Getter
 @Setter
-@Table(name = "reviews")
+@Table(name = "reviews", indexes = {
+        @Index(name = "idx_review_course_created_id", columnList = "course_id, createdAt, id"),
+        @Index(name = "idx_review_course_rating_id", columnList = "course_id, rating, id")
+})
 public class Review {
 
     @Id
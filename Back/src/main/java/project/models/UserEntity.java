@@ -61,7 +61,8 @@ public class UserEntity {
     @JoinTable(
             name = "user_instructor_follow",
             joinColumns = @JoinColumn(name = "user_id"),
-            inverseJoinColumns = @JoinColumn(name = "instructor_id")
+            inverseJoinColumns = @JoinColumn(name = "instructor_id"),
+            uniqueConstraints = @UniqueConstraint(name = "uk_user_instructor_follow", columnNames = {"user_id", "instructor_id"})
     )
     @JsonIgnoreProperties("followers")
     private List<Instructor> followedInstructors = new ArrayList<>();
@@ -0,0 +1,60 @@
+package project.models;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+// Server-side state of a resumable lesson video upload. The file is preallocated to its final size
+// and filled by fixed-size chunks in any order; receivedChunks records which chunks have landed and
+// chunkDigests holds the SHA-256 of each chunk, so the whole-file checksum never re-reads the file.
+@Entity
+@Getter
+@Setter
+@Table(name = "video_uploads", indexes = {
+        @Index(name = "idx_video_upload_updated_at", columnList = "updated_at")
+})
+public class VideoUpload {
+
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    private Long courseId;
+
+    private String username;
+
+    private String fileName;
+
+    private String contentType;
+
+    private long totalSize;
+
+    private int chunkSize;
+
+    private int chunkCount;
+
+    private int receivedCount;
+
+    // Bit n is set once chunk n has been written, in java.util.BitSet byte order
+    @Column(columnDefinition = "blob")
+    private byte[] receivedChunks;
+
+    // 32 bytes per chunk, in chunk order
+    @Column(columnDefinition = "mediumblob")
+    private byte[] chunkDigests;
+
+    // Set while the upload is being moved into lesson storage; chunks are refused from then on
+    @Column(columnDefinition = "bit not null default 0")
+    private boolean completing;
+
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public long chunkLength(int index) {
+        return index == chunkCount - 1 ? totalSize - (long) chunkSize * index : chunkSize;
+    }
+}
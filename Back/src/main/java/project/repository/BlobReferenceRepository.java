@@ -0,0 +1,33 @@
+package project.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import project.models.BlobReference;
+
+import javax.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface BlobReferenceRepository extends JpaRepository<BlobReference, String> {
+
+    @Modifying
+    @Query("UPDATE BlobReference b SET b.refCount = b.refCount + 1, b.updatedAt = :now WHERE b.storageKey = :storageKey")
+    int increment(@Param("storageKey") String storageKey, @Param("now") LocalDateTime now);
+
+    @Modifying
+    // Native: HQL does not accept arithmetic inside a CASE in an UPDATE's SET clause
+    @Query(value = "UPDATE blob_references SET ref_count = GREATEST(ref_count - 1, 0), updated_at = :now " +
+            "WHERE storage_key = :storageKey", nativeQuery = true)
+    int decrement(@Param("storageKey") String storageKey, @Param("now") LocalDateTime now);
+
+    @Query("SELECT b.storageKey FROM BlobReference b WHERE b.refCount = 0 AND b.updatedAt < :cutoff")
+    List<String> findUnreferencedBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM BlobReference b WHERE b.storageKey = :storageKey")
+    Optional<BlobReference> findByIdForUpdate(@Param("storageKey") String storageKey);
+}
@@ -1,10 +1,15 @@
 package project.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import project.dto.CourseDTO;
 import project.models.Bookmark;
 import project.models.Course;
 import project.models.UserEntity;
+import project.repository.projection.CourseActivityView;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,4 +18,14 @@ public interface BookmarkRepository extends JpaRepository<Bookmark, Long> {
     Optional<Bookmark> findByUserAndCourse(UserEntity user, Course course);
     boolean existsByUserAndCourse(UserEntity user, Course course);
     void deleteByUser(UserEntity user);
+
+    @Query("SELECT " + CourseRepository.COURSE_DTO_CONSTRUCTOR + "FROM Bookmark b JOIN b.course c " +
+            CourseRepository.COURSE_DTO_JOINS + "WHERE b.user.id = :userId ORDER BY b.createdAt DESC")
+    List<CourseDTO> findBookmarkedCourseDTOsByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT b.course.id FROM Bookmark b WHERE b.user.username = :username")
+    List<Long> findCourseIdsByUsername(@Param("username") String username);
+
+    @Query("SELECT b.course.id AS courseId, b.createdAt AS occurredAt FROM Bookmark b WHERE b.createdAt >= :since")
+    List<CourseActivityView> findActivitySince(@Param("since") LocalDateTime since);
 }
\ No newline at end of file
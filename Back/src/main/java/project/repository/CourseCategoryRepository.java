@@ -1,8 +1,13 @@
 package project.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import project.models.CourseCategory;
 
+import java.util.List;
+
 public interface CourseCategoryRepository extends JpaRepository<CourseCategory, Long> {
-}
 
+    @Query("SELECT c.imageUrl FROM CourseCategory c WHERE c.imageUrl IS NOT NULL")
+    List<String> findImageUrls();
+}
@@ -1,13 +1,129 @@
 package project.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import project.dto.CourseDTO;
 import project.models.Course;
+import project.repository.projection.CourseFacetView;
+import project.repository.projection.CourseRatingView;
+import project.repository.projection.CourseSearchView;
+import project.repository.projection.CourseSuggestionView;
 
+import javax.persistence.LockModeType;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface CourseRepository extends JpaRepository<Course, Long> {
 
+    // Constructor projection over Course c with aliases cat (category), i (instructor) and u (instructor user)
+    String COURSE_DTO_FIELDS = "c.id, c.title, c.description, c.price, c.pricingType, c.rating, c.totalReviews, " +
+            "c.imageUrl, c.level, c.language, c.totalStudents, c.lastUpdate, cat.id, i.id, u.username";
+    String COURSE_DTO_CONSTRUCTOR = "new project.dto.CourseDTO(" + COURSE_DTO_FIELDS + ") ";
+    String COURSE_DTO_JOINS = "LEFT JOIN c.category cat LEFT JOIN c.instructor i LEFT JOIN i.user u ";
+    String COURSE_DTO_SELECT = "SELECT " + COURSE_DTO_CONSTRUCTOR + "FROM Course c " + COURSE_DTO_JOINS;
+    // Same as COURSE_DTO_SELECT plus the rating distribution, i.e. what CourseDTO.fromEntity builds for course detail
+    String COURSE_DETAIL_DTO_SELECT = "SELECT new project.dto.CourseDTO(" + COURSE_DTO_FIELDS + ", " +
+            "c.oneStarReviews, c.twoStarReviews, c.threeStarReviews, c.fourStarReviews, c.fiveStarReviews) " +
+            "FROM Course c " + COURSE_DTO_JOINS;
+
+    String COURSE_SEARCH_VIEW_SELECT = "SELECT c.id AS id, c.title AS title, c.description AS description, " +
+            "cat.name AS categoryName, u.username AS instructorUsername " +
+            "FROM Course c LEFT JOIN c.category cat LEFT JOIN c.instructor i LEFT JOIN i.user u ";
+
     List<Course> findByInstructorId(Long instructorId);
+
+    // Serializes lesson ordinal assignment within a course
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Course c WHERE c.id = :id")
+    Optional<Course> findByIdForUpdate(@Param("id") Long id);
+
+    @Query("SELECT c.imageUrl FROM Course c WHERE c.imageUrl IS NOT NULL")
+    List<String> findImageUrls();
     void deleteByInstructorId(Long instructorId);
-}
 
+    // Keyset pagination for the catalog: every query is ordered by (sort key DESC, id DESC)
+    // and resumes strictly after the last (sort key, id) pair of the previous page.
+    @Query(COURSE_DTO_SELECT +
+            "WHERE c.rating < :rating OR (c.rating = :rating AND c.id < :lastId) " +
+            "ORDER BY c.rating DESC, c.id DESC")
+    List<CourseDTO> findCatalogPageByRating(@Param("rating") Double rating, @Param("lastId") Long lastId, Pageable pageable);
+
+    @Query(COURSE_DTO_SELECT +
+            "WHERE c.totalStudents < :totalStudents OR (c.totalStudents = :totalStudents AND c.id < :lastId) " +
+            "ORDER BY c.totalStudents DESC, c.id DESC")
+    List<CourseDTO> findCatalogPageByTotalStudents(@Param("totalStudents") int totalStudents, @Param("lastId") Long lastId, Pageable pageable);
+
+    @Query(COURSE_DTO_SELECT +
+            "WHERE c.lastUpdate < :lastUpdate OR (c.lastUpdate = :lastUpdate AND c.id < :lastId) " +
+            "ORDER BY c.lastUpdate DESC, c.id DESC")
+    List<CourseDTO> findCatalogPageByLastUpdate(@Param("lastUpdate") LocalDate lastUpdate, @Param("lastId") Long lastId, Pageable pageable);
+
+    @Query(COURSE_DTO_SELECT +
+            "WHERE c.id < :lastId " +
+            "ORDER BY c.id DESC")
+    List<CourseDTO> findCatalogPageById(@Param("lastId") Long lastId, Pageable pageable);
+
+    @Query(COURSE_DTO_SELECT + "WHERE i.id = :instructorId ORDER BY c.id")
+    List<CourseDTO> findCourseDTOsByInstructorId(@Param("instructorId") Long instructorId);
+
+    @Query(COURSE_DTO_SELECT + "WHERE c.id IN :ids")
+    List<CourseDTO> findCourseDTOsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(COURSE_DETAIL_DTO_SELECT + "WHERE c.id IN :ids")
+    List<CourseDTO> findCourseDetailDTOsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT c.id AS id, cat.id AS categoryId, c.level AS level, c.language AS language, " +
+            "c.pricingType AS pricingType, c.price AS price, c.rating AS rating " +
+            "FROM Course c LEFT JOIN c.category cat WHERE c.id > :afterId ORDER BY c.id")
+    List<CourseFacetView> findFacetViewsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query(COURSE_SEARCH_VIEW_SELECT + "WHERE c.id > :afterId ORDER BY c.id")
+    List<CourseSearchView> findSearchViewsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query(COURSE_SEARCH_VIEW_SELECT + "WHERE cat.id = :categoryId")
+    List<CourseSearchView> findSearchViewsByCategoryId(@Param("categoryId") Long categoryId);
+
+    @Query(COURSE_SEARCH_VIEW_SELECT + "WHERE i.id = :instructorId")
+    List<CourseSearchView> findSearchViewsByInstructorId(@Param("instructorId") Long instructorId);
+
+    @Query("SELECT c.id AS id, c.title AS title, c.totalStudents AS totalStudents, c.rating AS rating, " +
+            "cat.id AS categoryId, i.id AS instructorId " +
+            "FROM Course c LEFT JOIN c.category cat LEFT JOIN c.instructor i WHERE c.id > :afterId ORDER BY c.id")
+    List<CourseSuggestionView> findSuggestionViewsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Changes the student count in place, never below zero. Native: HQL does not accept arithmetic inside
+    // a CASE in an UPDATE's SET clause.
+    @Modifying
+    @Query(value = "UPDATE courses SET total_students = GREATEST(total_students + :delta, 0) WHERE id = :courseId", nativeQuery = true)
+    int applyStudentDelta(@Param("courseId") Long courseId, @Param("delta") int delta);
+
+    // Increments the review aggregates in place; the row lock it takes serializes concurrent review writes
+    @Modifying
+    @Query("UPDATE Course c SET c.ratingSum = c.ratingSum + :sumDelta, c.totalReviews = c.totalReviews + :countDelta, " +
+            "c.oneStarReviews = c.oneStarReviews + :one, c.twoStarReviews = c.twoStarReviews + :two, " +
+            "c.threeStarReviews = c.threeStarReviews + :three, c.fourStarReviews = c.fourStarReviews + :four, " +
+            "c.fiveStarReviews = c.fiveStarReviews + :five WHERE c.id = :courseId")
+    int applyRatingDelta(@Param("courseId") Long courseId, @Param("sumDelta") double sumDelta, @Param("countDelta") int countDelta,
+                         @Param("one") int one, @Param("two") int two, @Param("three") int three,
+                         @Param("four") int four, @Param("five") int five);
+
+    // Native so the current value is read from the locked row rather than from a managed Course
+    @Query(value = "SELECT COALESCE(rating, 0) FROM courses WHERE id = :courseId FOR UPDATE", nativeQuery = true)
+    double findRatingForUpdate(@Param("courseId") Long courseId);
+
+    @Query("SELECT c.id AS id, c.ratingSum AS ratingSum, c.totalReviews AS totalReviews, c.oneStarReviews AS oneStarReviews, " +
+            "c.twoStarReviews AS twoStarReviews, c.threeStarReviews AS threeStarReviews, c.fourStarReviews AS fourStarReviews, " +
+            "c.fiveStarReviews AS fiveStarReviews FROM Course c WHERE c.id = :courseId")
+    CourseRatingView findRatingAggregates(@Param("courseId") Long courseId);
+
+    // Courses created before the aggregate columns existed, or otherwise out of step with totalReviews
+    @Query("SELECT c.id FROM Course c WHERE c.totalReviews <> c.oneStarReviews + c.twoStarReviews + c.threeStarReviews " +
+            "+ c.fourStarReviews + c.fiveStarReviews OR (c.totalReviews > 0 AND c.ratingSum = 0)")
+    List<Long> findIdsWithStaleRatingAggregates();
+}
@@ -1,18 +1,86 @@
 package project.repository;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import project.models.Enrollment;
 import project.models.UserEntity;
 import project.models.Course;
+import project.repository.projection.CourseActivityView;
+import project.repository.projection.DashboardEnrollmentView;
+import project.repository.projection.EnrollmentBitsView;
+import project.repository.projection.EnrollmentOwnerView;
+import project.repository.projection.EnrollmentPairView;
 
+import javax.persistence.LockModeType;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 public interface EnrollmentRepository extends JpaRepository<Enrollment, Long> {
+    @EntityGraph(attributePaths = {"course", "course.category"})
     List<Enrollment> findByStudent(UserEntity student);
     Optional<Enrollment> findByStudentAndCourse(UserEntity student, Course course);
     boolean existsByIdAndStudentId(Long id, Long studentId);
     Optional<Enrollment> findByCourseAndStudent(Course course, UserEntity student);
     void deleteByStudent(UserEntity student);
+    List<Enrollment> findByCourseId(Long courseId);
+
+    @Modifying
+    @Query("DELETE FROM Enrollment e WHERE e.student.id = :studentId AND e.course.id = :courseId")
+    int deleteByStudentIdAndCourseId(@Param("studentId") Long studentId, @Param("courseId") Long courseId);
+
+    // Serializes progress updates so concurrent lesson completions do not overwrite each other's bits
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM Enrollment e WHERE e.id = :id")
+    Optional<Enrollment> findByIdForUpdate(@Param("id") Long id);
+
+    // Locks the course's enrollments that have completed anything, so lesson completions wait for a lesson removal
+    @Query(value = "SELECT id AS id, completed_lessons AS completedLessons FROM enrollments " +
+            "WHERE course_id = :courseId AND completed_lessons_count > 0 FOR UPDATE", nativeQuery = true)
+    List<EnrollmentBitsView> findCompletedBitsForUpdate(@Param("courseId") Long courseId);
+
+    @Modifying
+    @Query("UPDATE Enrollment e SET e.completedLessons = :completedLessons, e.completedLessonsCount = e.completedLessonsCount - 1 " +
+            "WHERE e.id = :id AND e.completedLessonsCount > 0")
+    int removeCompletedLesson(@Param("id") Long id, @Param("completedLessons") byte[] completedLessons);
+
+    // Same rule as LessonProgressService.updateCourseProgress, for every enrollment of a course at once
+    @Modifying
+    @Query(value = "UPDATE enrollments SET " +
+            "progress_percentage = CASE WHEN :totalLessons = 0 THEN 0 " +
+            "ELSE LEAST(100, FLOOR(completed_lessons_count * 100 / :totalLessons)) END, " +
+            "status = CASE WHEN :totalLessons > 0 AND completed_lessons_count >= :totalLessons THEN 'COMPLETED' ELSE status END " +
+            "WHERE course_id = :courseId", nativeQuery = true)
+    int recomputeProgress(@Param("courseId") Long courseId, @Param("totalLessons") long totalLessons);
+
+    @Query("SELECT e.id AS enrollmentId, e.course.id AS courseId, e.status AS status, e.progressPercentage AS progressPercentage, " +
+            "e.completedLessonsCount AS completedLessonsCount, e.completedLessons AS completedLessons, " +
+            "e.enrollmentDate AS enrollmentDate, e.lastAccessedDate AS lastAccessedDate, " +
+            "e.lastLessonId AS lastLessonId, e.lastPositionSeconds AS lastPositionSeconds " +
+            "FROM Enrollment e WHERE e.student.username = :username ORDER BY e.lastAccessedDate DESC, e.id DESC")
+    Slice<DashboardEnrollmentView> findDashboardByUsername(@Param("username") String username, Pageable pageable);
+
+    @Query("SELECT e.student.username AS username, e.course.id AS courseId FROM Enrollment e WHERE e.id = :id")
+    Optional<EnrollmentOwnerView> findOwnerById(@Param("id") Long id);
+
+    @Query("SELECT e.student.username FROM Enrollment e WHERE e.course.id = :courseId")
+    List<String> findStudentUsernamesByCourseId(@Param("courseId") Long courseId);
+
+    @Query("SELECT e.course.id FROM Enrollment e WHERE e.student.username = :username")
+    List<Long> findCourseIdsByStudentUsername(@Param("username") String username);
+
+    @Query("SELECT e.course.id AS courseId, e.enrollmentDate AS occurredAt FROM Enrollment e WHERE e.enrollmentDate >= :since")
+    List<CourseActivityView> findActivitySince(@Param("since") LocalDateTime since);
+
+    @Query("SELECT e.student.id AS studentId, e.course.id AS courseId FROM Enrollment e " +
+            "WHERE e.student.id > :studentId OR (e.student.id = :studentId AND e.course.id > :courseId) " +
+            "ORDER BY e.student.id, e.course.id")
+    List<EnrollmentPairView> findPairsAfter(@Param("studentId") Long studentId, @Param("courseId") Long courseId, Pageable pageable);
 
 }
\ No newline at end of file
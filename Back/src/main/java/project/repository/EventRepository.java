@@ -22,4 +22,7 @@ public interface EventRepository extends JpaRepository<Event, Long> {
 
     @Query("SELECT COUNT(r) FROM EventRegistration r WHERE r.event.id = :eventId")
     int countRegistrationsByEventId(Long eventId);
+
+    @Query("SELECT DISTINCT e.imageUrl FROM Event e WHERE e.imageUrl IS NOT NULL")
+    List<String> findImageUrls();
 }
\ No newline at end of file
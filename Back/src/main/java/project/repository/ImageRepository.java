@@ -1,7 +1,10 @@
 package project.repository;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import project.models.Image;
+import project.repository.projection.ImageContentView;
 
 import java.util.Optional;
 
@@ -11,5 +14,10 @@ public interface ImageRepository extends JpaRepository<Image,Long > {
 
     Optional<Image> findByUserEntityId(Long idUser);
 
+    // Just what serving needs, without loading the user the image belongs to
+    @Query("SELECT i.storageKey AS storageKey, i.contentHash AS contentHash, i.contentType AS contentType " +
+            "FROM Image i WHERE i.userEntity.id = :idUser")
+    Optional<ImageContentView> findContentByUserEntityId(@Param("idUser") Long idUser);
+
     void deleteByUserEntityId(Long userId);
 }
@@ -7,6 +7,7 @@ import org.springframework.stereotype.Repository;
 import project.models.Instructor;
 import project.models.InstructorStatus;
 import project.models.UserEntity;
+import project.repository.projection.InstructorNameView;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -23,5 +24,16 @@ public interface InstructorRepository extends JpaRepository<Instructor, Long> {
 
     @Query("SELECT u FROM UserEntity u JOIN u.followedInstructors i WHERE i.id = :instructorId")
     Page<UserEntity> findFollowersById(@Param("instructorId") Long instructorId, Pageable pageable);
-}
 
+    @Query("SELECT i.id AS id, u.username AS username FROM Instructor i JOIN i.user u WHERE i.status = :status")
+    List<InstructorNameView> findNamesByStatus(@Param("status") InstructorStatus status);
+
+    @Query("SELECT i.id FROM UserEntity u JOIN u.followedInstructors i WHERE u.username = :username")
+    List<Long> findFollowedInstructorIdsByUsername(@Param("username") String username);
+
+    @Query("SELECT COUNT(i) > 0 FROM UserEntity u JOIN u.followedInstructors i WHERE u.id = :userId AND i.id = :instructorId")
+    boolean isFollowedBy(@Param("instructorId") Long instructorId, @Param("userId") Long userId);
+
+    @Query("SELECT i.id FROM Instructor i WHERE i.id > :afterId ORDER BY i.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+}
@@ -0,0 +1,53 @@
+package project.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import project.models.InstructorStats;
+
+import javax.transaction.Transactional;
+import java.util.Collection;
+
+public interface InstructorStatsRepository extends JpaRepository<InstructorStats, Long> {
+
+    // Single-statement increment, so concurrent updates to the same instructor never lose a delta
+    @Modifying
+    @Query("UPDATE InstructorStats s SET s.followersCount = s.followersCount + :followers, " +
+            "s.coursesCount = s.coursesCount + :courses, s.totalStudents = s.totalStudents + :students, " +
+            "s.totalReviews = s.totalReviews + :reviews, s.ratingSum = s.ratingSum + :ratingSum " +
+            "WHERE s.instructorId = :instructorId")
+    int applyDelta(@Param("instructorId") Long instructorId, @Param("followers") int followers, @Param("courses") int courses,
+                   @Param("students") int students, @Param("reviews") int reviews, @Param("ratingSum") double ratingSum);
+
+    // Builds a missing row from the source tables in one statement; a row created concurrently is kept
+    // (0 rows inserted). Runs in the caller's transaction, so the caller's own uncommitted changes are counted.
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT IGNORE INTO instructor_stats " +
+            "(instructor_id, followers_count, courses_count, total_students, total_reviews, rating_sum) " +
+            "SELECT i.id, " +
+            "(SELECT COUNT(*) FROM user_instructor_follow f WHERE f.instructor_id = i.id), " +
+            "(SELECT COUNT(*) FROM courses c WHERE c.instructor_id = i.id), " +
+            "(SELECT COALESCE(SUM(c.total_students), 0) FROM courses c WHERE c.instructor_id = i.id), " +
+            "(SELECT COALESCE(SUM(c.total_reviews), 0) FROM courses c WHERE c.instructor_id = i.id), " +
+            "(SELECT COALESCE(SUM(c.rating), 0) FROM courses c WHERE c.instructor_id = i.id) " +
+            "FROM instructors i WHERE i.id = :instructorId", nativeQuery = true)
+    int insertFromSource(@Param("instructorId") Long instructorId);
+
+    // Recomputes existing rows from the source tables in one statement. The rows it reads and writes are
+    // locked for the statement, so a delta committed concurrently is either counted or applied afterwards.
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE instructor_stats s JOIN (SELECT i.id AS instructor_id, " +
+            "(SELECT COUNT(*) FROM user_instructor_follow f WHERE f.instructor_id = i.id) AS followers_count, " +
+            "(SELECT COUNT(*) FROM courses c WHERE c.instructor_id = i.id) AS courses_count, " +
+            "(SELECT COALESCE(SUM(c.total_students), 0) FROM courses c WHERE c.instructor_id = i.id) AS total_students, " +
+            "(SELECT COALESCE(SUM(c.total_reviews), 0) FROM courses c WHERE c.instructor_id = i.id) AS total_reviews, " +
+            "(SELECT COALESCE(SUM(c.rating), 0) FROM courses c WHERE c.instructor_id = i.id) AS rating_sum " +
+            "FROM instructors i WHERE i.id IN (:instructorIds)) t ON t.instructor_id = s.instructor_id " +
+            "SET s.followers_count = t.followers_count, s.courses_count = t.courses_count, " +
+            "s.total_students = t.total_students, s.total_reviews = t.total_reviews, s.rating_sum = t.rating_sum",
+            nativeQuery = true)
+    int recomputeFromSource(@Param("instructorIds") Collection<Long> instructorIds);
+}
@@ -1,14 +1,28 @@
 package project.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
-import project.models.Enrollment;
-import project.models.Lesson;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import project.models.LessonProgress;
+import project.repository.projection.LessonCompletionView;
 
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
 
+// Legacy one-row-per-lesson progress; only read to fold old rows into Enrollment.completedLessons
 public interface LessonProgressRepository extends JpaRepository<LessonProgress, Long> {
-    Optional<LessonProgress> findByEnrollmentAndLesson(Enrollment enrollment, Lesson lesson);
-    List<LessonProgress> findByEnrollment(Enrollment enrollment);
+
+    @Query("SELECT DISTINCT lp.enrollment.id FROM LessonProgress lp ORDER BY lp.enrollment.id")
+    List<Long> findEnrollmentIds(Pageable pageable);
+
+    @Query("SELECT lp.enrollment.id AS enrollmentId, l.ordinal AS lessonOrdinal FROM LessonProgress lp JOIN lp.lesson l " +
+            "WHERE lp.enrollment.id IN :enrollmentIds AND lp.status = :status")
+    List<LessonCompletionView> findCompletions(@Param("enrollmentIds") Collection<Long> enrollmentIds,
+                                               @Param("status") LessonProgress.LessonStatus status);
+
+    @Modifying
+    @Query("DELETE FROM LessonProgress lp WHERE lp.enrollment.id IN :enrollmentIds")
+    int deleteByEnrollmentIds(@Param("enrollmentIds") Collection<Long> enrollmentIds);
 }
\ No newline at end of file
@@ -1,8 +1,27 @@
 package project.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import project.models.Lesson;
+import project.repository.projection.LessonOutlineView;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface LessonRepository extends JpaRepository<Lesson, Long> {
+    long countByCourseId(Long courseId);
+    List<Lesson> findByOrdinalIsNullOrderByIdAsc();
+
+    @Query("SELECT l.course.id FROM Lesson l WHERE l.id = :id")
+    Optional<Long> findCourseIdById(@Param("id") Long id);
+
+    @Query("SELECT COALESCE(MAX(l.ordinal), -1) FROM Lesson l WHERE l.course.id = :courseId")
+    int findMaxOrdinal(@Param("courseId") Long courseId);
+
+    @Query("SELECT l.course.id AS courseId, l.id AS id, l.title AS title, l.videoUrl AS videoUrl, l.ordinal AS ordinal " +
+            "FROM Lesson l WHERE l.course.id IN :courseIds ORDER BY l.course.id, l.ordinal, l.id")
+    List<LessonOutlineView> findOutlinesByCourseIdIn(@Param("courseIds") Collection<Long> courseIds);
 }
 
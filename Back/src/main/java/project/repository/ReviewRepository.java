@@ -1,15 +1,45 @@
 package project.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import project.dto.ReviewDTO;
 import project.models.Course;
 import project.models.Review;
 import project.models.UserEntity;
+import project.repository.projection.CourseActivityView;
+import project.repository.projection.RatingCountView;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface ReviewRepository extends JpaRepository<Review, Long> {
+
+    String REVIEW_DTO_SELECT = "SELECT new project.dto.ReviewDTO(r.id, r.rating, r.comment, r.createdAt, c.id, u.id, u.username) " +
+            "FROM Review r JOIN r.course c JOIN r.user u ";
+
     List<Review> findByCourse(Course course);
     List<Review> findByCourseOrderByCreatedAtDesc(Course course);
     List<Review> findByCourseOrderByRatingDesc(Course course);
     void deleteByUser(UserEntity user);
+
+    @Query("SELECT r.course.id AS courseId, r.createdAt AS occurredAt FROM Review r WHERE r.createdAt >= :since")
+    List<CourseActivityView> findActivitySince(@Param("since") LocalDateTime since);
+
+    @Query("SELECT r.course.id AS courseId, r.rating AS rating, COUNT(r) AS reviews FROM Review r " +
+            "WHERE r.course.id IN :courseIds GROUP BY r.course.id, r.rating")
+    List<RatingCountView> countByCourseIdInAndRating(@Param("courseIds") Collection<Long> courseIds);
+
+    // Keyset pages of a course's reviews; served by the (course_id, created_at, id) and (course_id, rating, id) indexes
+    @Query(REVIEW_DTO_SELECT + "WHERE c.id = :courseId AND (r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :lastId)) " +
+            "ORDER BY r.createdAt DESC, r.id DESC")
+    List<ReviewDTO> findPageByCreatedAt(@Param("courseId") Long courseId, @Param("createdAt") LocalDateTime createdAt,
+                                        @Param("lastId") Long lastId, Pageable pageable);
+
+    @Query(REVIEW_DTO_SELECT + "WHERE c.id = :courseId AND (r.rating < :rating OR (r.rating = :rating AND r.id < :lastId)) " +
+            "ORDER BY r.rating DESC, r.id DESC")
+    List<ReviewDTO> findPageByRating(@Param("courseId") Long courseId, @Param("rating") Double rating,
+                                     @Param("lastId") Long lastId, Pageable pageable);
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package project.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import project.models.VideoUpload;
+
+import javax.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface VideoUploadRepository extends JpaRepository<VideoUpload, String> {
+    List<VideoUpload> findByUpdatedAtBefore(LocalDateTime cutoff);
+
+    // Serializes bookkeeping of chunks that were written in parallel
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM VideoUpload u WHERE u.id = :id")
+    Optional<VideoUpload> findByIdForUpdate(@Param("id") String id);
+}
@@ -0,0 +1,8 @@
+package project.repository.projection;
+
+import java.time.LocalDateTime;
+
+public interface CourseActivityView {
+    Long getCourseId();
+    LocalDateTime getOccurredAt();
+}
@@ -0,0 +1,17 @@
+package project.repository.projection;
+
+import project.models.CourseLanguage;
+import project.models.CourseLevel;
+import project.models.PricingType;
+
+import java.math.BigDecimal;
+
+public interface CourseFacetView {
+    Long getId();
+    Long getCategoryId();
+    CourseLevel getLevel();
+    CourseLanguage getLanguage();
+    PricingType getPricingType();
+    BigDecimal getPrice();
+    Double getRating();
+}
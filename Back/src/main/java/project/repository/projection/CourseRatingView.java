@@ -0,0 +1,12 @@
+package project.repository.projection;
+
+public interface CourseRatingView {
+    Long getId();
+    Double getRatingSum();
+    Integer getTotalReviews();
+    Integer getOneStarReviews();
+    Integer getTwoStarReviews();
+    Integer getThreeStarReviews();
+    Integer getFourStarReviews();
+    Integer getFiveStarReviews();
+}
@@ -0,0 +1,9 @@
+package project.repository.projection;
+
+public interface CourseSearchView {
+    Long getId();
+    String getTitle();
+    String getDescription();
+    String getCategoryName();
+    String getInstructorUsername();
+}
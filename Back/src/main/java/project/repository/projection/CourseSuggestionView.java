@@ -0,0 +1,10 @@
+package project.repository.projection;
+
+public interface CourseSuggestionView {
+    Long getId();
+    String getTitle();
+    Integer getTotalStudents();
+    Double getRating();
+    Long getCategoryId();
+    Long getInstructorId();
+}
@@ -0,0 +1,18 @@
+package project.repository.projection;
+
+import project.models.EnrollmentStatus;
+
+import java.time.LocalDateTime;
+
+public interface DashboardEnrollmentView {
+    Long getEnrollmentId();
+    Long getCourseId();
+    EnrollmentStatus getStatus();
+    Integer getProgressPercentage();
+    Integer getCompletedLessonsCount();
+    byte[] getCompletedLessons();
+    LocalDateTime getEnrollmentDate();
+    LocalDateTime getLastAccessedDate();
+    Long getLastLessonId();
+    Integer getLastPositionSeconds();
+}
@@ -0,0 +1,6 @@
+package project.repository.projection;
+
+public interface EnrollmentBitsView {
+    Long getId();
+    byte[] getCompletedLessons();
+}
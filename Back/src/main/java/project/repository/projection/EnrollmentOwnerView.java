@@ -0,0 +1,6 @@
+package project.repository.projection;
+
+public interface EnrollmentOwnerView {
+    String getUsername();
+    Long getCourseId();
+}
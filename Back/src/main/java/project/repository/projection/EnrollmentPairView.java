@@ -0,0 +1,6 @@
+package project.repository.projection;
+
+public interface EnrollmentPairView {
+    Long getStudentId();
+    Long getCourseId();
+}
@@ -0,0 +1,7 @@
+package project.repository.projection;
+
+public interface ImageContentView {
+    String getStorageKey();
+    String getContentHash();
+    String getContentType();
+}
@@ -0,0 +1,6 @@
+package project.repository.projection;
+
+public interface InstructorNameView {
+    Long getId();
+    String getUsername();
+}
@@ -0,0 +1,6 @@
+package project.repository.projection;
+
+public interface LessonCompletionView {
+    Long getEnrollmentId();
+    Integer getLessonOrdinal();
+}
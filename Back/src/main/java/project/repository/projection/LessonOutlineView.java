@@ -0,0 +1,9 @@
+package project.repository.projection;
+
+public interface LessonOutlineView {
+    Long getCourseId();
+    Long getId();
+    String getTitle();
+    String getVideoUrl();
+    Integer getOrdinal();
+}
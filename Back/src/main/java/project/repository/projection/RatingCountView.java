@@ -0,0 +1,7 @@
+package project.repository.projection;
+
+public interface RatingCountView {
+    Long getCourseId();
+    Double getRating();
+    Long getReviews();
+}
@@ -0,0 +1,45 @@
+package project.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.Optional;
+
+// Storage for uploaded media. Blobs are addressed by the public URL returned when they are stored
+// (e.g. /uploads/courses/3f/a2/<name>.jpg); a namespace groups blobs of one kind.
+public interface BlobStore {
+
+    @FunctionalInterface
+    interface BlobWriter {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    // Streams a new, uniquely named blob; it only becomes visible once completely written
+    String write(String namespace, String extension, BlobWriter writer) throws IOException;
+
+    default String put(String namespace, String extension, InputStream content) throws IOException {
+        return write(namespace, extension, content::transferTo);
+    }
+
+    // Stores the content under its SHA-256, so identical uploads share one blob and one URL
+    String putDeduplicated(String namespace, String extension, InputStream content) throws IOException;
+
+    // Writes or atomically replaces the blob at a URL derived from a stored one, such as an image rendition
+    void writeAt(String url, BlobWriter writer) throws IOException;
+
+    // Moves an existing file (e.g. an assembled upload) into the store
+    String putFile(String namespace, String extension, Path source) throws IOException;
+
+    InputStream open(String url) throws IOException;
+
+    // Direct file access for zero-copy serving; empty when the store is not file-backed or the url is unknown
+    Optional<Path> localPath(String url);
+
+    boolean exists(String url);
+
+    boolean delete(String url);
+
+    // Deletes any blob, content-addressed ones included; only for callers that count its references
+    boolean purge(String url);
+}
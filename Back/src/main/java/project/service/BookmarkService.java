@@ -13,7 +13,6 @@ import project.repository.UserRepository;
 
 import javax.transaction.Transactional;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 public class BookmarkService {
@@ -27,6 +26,12 @@ public class BookmarkService {
     @Autowired
     private CourseRepository courseRepository;
 
+    @Autowired
+    private UserRelationCache userRelationCache;
+
+    @Autowired
+    private TrendingCourseTracker trendingCourseTracker;
+
     @Transactional
     public void addBookmark(Long userId, Long courseId) {
         UserEntity user = userRepository.findById(userId)
@@ -42,6 +47,8 @@ public class BookmarkService {
         bookmark.setUser(user);
         bookmark.setCourse(course);
         bookmarkRepository.save(bookmark);
+        userRelationCache.bookmarkAdded(user.getUsername(), course.getId());
+        trendingCourseTracker.recordBookmark(course.getId());
     }
 
     @Transactional
@@ -55,14 +62,16 @@ public class BookmarkService {
                 .orElseThrow(() -> new ResourceNotFoundException("Bookmark not found"));
 
         bookmarkRepository.delete(bookmark);
+        userRelationCache.bookmarkRemoved(user.getUsername(), course.getId());
     }
 
     public List<CourseDTO> getBookmarkedCourses(Long userId) {
-        UserEntity user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User not found");
+        }
 
-        return bookmarkRepository.findByUser(user).stream()
-                .map(bookmark -> CourseDTO.fromEntity(bookmark.getCourse()))
-                .collect(Collectors.toList());
+        List<CourseDTO> courses = bookmarkRepository.findBookmarkedCourseDTOsByUserId(userId);
+        courses.forEach(course -> course.setBookmarked(true));
+        return courses;
     }
 }
\ No newline at end of file
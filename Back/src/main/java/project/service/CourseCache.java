@@ -0,0 +1,64 @@
+package project.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import project.dto.CourseDTO;
+import project.utils.BoundedCache;
+import project.utils.TransactionCallbacks;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+// Read-through cache for course detail DTOs (by course id) and instructor course lists (by instructor id)
+@Component
+public class CourseCache {
+
+    private final BoundedCache<Long, CourseDTO> coursesById;
+    private final BoundedCache<Long, List<CourseDTO>> coursesByInstructor;
+
+    public CourseCache(@Value("${course.cache.max-size:10000}") int maxSize,
+                       @Value("${course.cache.ttl-seconds:300}") long ttlSeconds) {
+        this.coursesById = new BoundedCache<>("coursesById", maxSize, ttlSeconds);
+        this.coursesByInstructor = new BoundedCache<>("coursesByInstructor", Math.max(1, maxSize / 10), ttlSeconds);
+    }
+
+    public CourseDTO getCourse(Long courseId, Function<Long, CourseDTO> loader) {
+        return coursesById.get(courseId, loader);
+    }
+
+    public Map<Long, CourseDTO> getCourses(Collection<Long> courseIds, Function<List<Long>, Map<Long, CourseDTO>> loader) {
+        return coursesById.getAll(courseIds, loader);
+    }
+
+    public List<CourseDTO> getInstructorCourses(Long instructorId, Function<Long, List<CourseDTO>> loader) {
+        return coursesByInstructor.get(instructorId, loader);
+    }
+
+    public void evictCourse(Long courseId, Long instructorId) {
+        TransactionCallbacks.nowAndAfterCommit(() -> {
+            coursesById.invalidate(courseId);
+            if (instructorId != null) {
+                coursesByInstructor.invalidate(instructorId);
+            }
+        });
+    }
+
+    public void evictInstructor(Long instructorId) {
+        TransactionCallbacks.nowAndAfterCommit(() -> coursesByInstructor.invalidate(instructorId));
+    }
+
+    // Used when a change touches an unknown set of courses, e.g. an instructor rename
+    public void evictAll() {
+        TransactionCallbacks.nowAndAfterCommit(() -> {
+            coursesById.invalidateAll();
+            coursesByInstructor.invalidateAll();
+        });
+    }
+
+    public List<Map<String, Object>> stats() {
+        return Arrays.asList(coursesById.stats(), coursesByInstructor.stats());
+    }
+}
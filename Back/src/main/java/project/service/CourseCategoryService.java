@@ -15,18 +15,11 @@ import project.repository.CourseCategoryRepository;
 import project.repository.InstructorRepository;
 import project.repository.UserRepository;
 import project.exception.ResourceNotFoundException;
+import project.utils.TransactionCallbacks;
 
-import javax.imageio.IIOImage;
-import javax.imageio.ImageIO;
-import javax.imageio.ImageWriteParam;
-import javax.imageio.ImageWriter;
-import java.awt.image.BufferedImage;
 import java.io.*;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.List;
-import java.util.UUID;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
@@ -46,10 +39,20 @@ public class CourseCategoryService {
     @Autowired
     private InstructorRepository instructorRepository; // Inject InstructorRepository
 
-    private final String UPLOAD_DIR = "uploads/";
+    @Autowired
+    private CourseSearchIndex courseSearchIndex;
+
+    @Autowired
+    private CourseSuggestionIndex courseSuggestionIndex;
+
+    @Autowired
+    private ImagePipeline imagePipeline;
+
+    private static final String IMAGE_NAMESPACE = "categories";
 
     public CourseCategory createCategory(CourseCategory category) {
         CourseCategory savedCategory = courseCategoryRepository.save(category);
+        courseSuggestionIndex.putCategory(savedCategory.getId(), savedCategory.getName());
 
         // Notify approved instructors about the new category
         notifyInstructorsOfNewCategory(savedCategory);
@@ -97,27 +100,34 @@ public class CourseCategoryService {
 
     public CourseCategory updateCategory(Long id, CourseCategory categoryDetails) {
         CourseCategory category = getCategoryById(id);
+        boolean renamed = !Objects.equals(category.getName(), categoryDetails.getName());
         category.setName(categoryDetails.getName());
-        if (categoryDetails.getImageUrl() != null) {
+        String replacedImageUrl = null;
+        if (categoryDetails.getImageUrl() != null && !categoryDetails.getImageUrl().equals(category.getImageUrl())) {
+            replacedImageUrl = category.getImageUrl();
             category.setImageUrl(categoryDetails.getImageUrl());
         }
-        return courseCategoryRepository.save(category);
+        CourseCategory savedCategory = courseCategoryRepository.save(category);
+        // The old image and its renditions go only once the category no longer points at them
+        if (replacedImageUrl != null) {
+            String imageUrl = replacedImageUrl;
+            TransactionCallbacks.afterCommit(() -> imagePipeline.delete(imageUrl));
+        }
+        if (renamed) {
+            courseSearchIndex.reindexCategory(savedCategory.getId());
+            courseSuggestionIndex.putCategory(savedCategory.getId(), savedCategory.getName());
+        }
+        return savedCategory;
     }
 
     public void deleteCategory(Long id) {
         CourseCategory category = getCategoryById(id);
         // Delete the image file if it exists
         if (category.getImageUrl() != null) {
-            try {
-                String fileName = category.getImageUrl().substring("/uploads/".length());
-                Path filePath = Paths.get(UPLOAD_DIR + fileName);
-                Files.deleteIfExists(filePath);
-            } catch (IOException e) {
-                // Log the error but continue with category deletion
-                e.printStackTrace();
-            }
+            imagePipeline.delete(category.getImageUrl());
         }
         courseCategoryRepository.delete(category);
+        courseSuggestionIndex.removeCategory(id);
     }
 
     public CourseCategory getCategoryById(Long id) {
@@ -130,46 +140,7 @@ public class CourseCategoryService {
     }
 
     public String uploadImage(MultipartFile image) throws IOException {
-        if (image.isEmpty()) {
-            throw new IllegalArgumentException("Image file is empty");
-        }
-
-        // Create the upload directory if it doesn't exist
-        Path uploadPath = Paths.get(UPLOAD_DIR);
-        if (!Files.exists(uploadPath)) {
-            Files.createDirectories(uploadPath);
-        }
-
-        // Generate a unique file name
-        String originalFilename = image.getOriginalFilename();
-        String extension = originalFilename != null ? originalFilename.substring(originalFilename.lastIndexOf(".")) : ".jpg";
-        String fileName = UUID.randomUUID().toString() + extension;
-        Path filePath = uploadPath.resolve(fileName);
-
-        // Compress and save the image
-        BufferedImage originalImage = ImageIO.read(image.getInputStream());
-
-        // Create output stream to save compressed image
-        OutputStream os = Files.newOutputStream(filePath);
-
-        // Get image writers for the extension
-        ImageWriter writer = ImageIO.getImageWritersByFormatName(extension.substring(1)).next();
-
-        // Set compression
-        ImageWriteParam param = writer.getDefaultWriteParam();
-        if (param.canWriteCompressed()) {
-            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
-            param.setCompressionQuality(0.7f); // Set compression quality (0.0-1.0)
-        }
-
-        // Write the compressed image
-        writer.setOutput(ImageIO.createImageOutputStream(os));
-        writer.write(null, new IIOImage(originalImage, null, null), param);
-
-        // Clean up
-        writer.dispose();
-        os.close();
-
-        return "/uploads/" + fileName;
+        // Compress and store the image along with its renditions
+        return imagePipeline.store(IMAGE_NAMESPACE, image);
     }
 }
\ No newline at end of file
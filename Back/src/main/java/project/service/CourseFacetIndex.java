@@ -0,0 +1,346 @@
+package project.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import project.dto.CourseFilterDTO;
+import project.models.Course;
+import project.models.CourseLanguage;
+import project.models.CourseLevel;
+import project.models.PricingType;
+import project.repository.CourseRepository;
+import project.repository.projection.CourseFacetView;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// In-memory facet index over the course catalog. Each course gets a dense ordinal and every
+// facet value keeps a BitSet of ordinals, so filtering is a handful of bitset intersections and
+// facet counts are cardinalities instead of GROUP BY scans.
+@Component
+public class CourseFacetIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(CourseFacetIndex.class);
+
+    public static final String FACET_CATEGORY = "category";
+    public static final String FACET_LEVEL = "level";
+    public static final String FACET_LANGUAGE = "language";
+    public static final String FACET_PRICING_TYPE = "pricingType";
+    public static final String FACET_RATING = "rating";
+
+    private static final int LOAD_BATCH_SIZE = 1000;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final long NO_CATEGORY = -1L;
+    private static final double[] RATING_BUCKETS = {4.5, 4.0, 3.5, 3.0};
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+    private int nextOrdinal = 0;
+
+    // Per-ordinal column values; enum columns store ordinal + 1 so that 0 means "unset"
+    private long[] courseIds = new long[INITIAL_CAPACITY];
+    private long[] categoryIds = new long[INITIAL_CAPACITY];
+    private byte[] levels = new byte[INITIAL_CAPACITY];
+    private byte[] languages = new byte[INITIAL_CAPACITY];
+    private byte[] pricingTypes = new byte[INITIAL_CAPACITY];
+    private double[] prices = new double[INITIAL_CAPACITY];
+    private double[] ratings = new double[INITIAL_CAPACITY];
+
+    private final BitSet live = new BitSet();
+    private final Map<Long, BitSet> byCategory = new HashMap<>();
+    private final Map<CourseLevel, BitSet> byLevel = new EnumMap<>(CourseLevel.class);
+    private final Map<CourseLanguage, BitSet> byLanguage = new EnumMap<>(CourseLanguage.class);
+    private final Map<PricingType, BitSet> byPricingType = new EnumMap<>(PricingType.class);
+
+    public static class Result {
+        private final List<Long> courseIds;
+        private final long totalMatches;
+        private final Map<String, Map<String, Long>> facets;
+
+        Result(List<Long> courseIds, long totalMatches, Map<String, Map<String, Long>> facets) {
+            this.courseIds = courseIds;
+            this.totalMatches = totalMatches;
+            this.facets = facets;
+        }
+
+        public List<Long> getCourseIds() {
+            return courseIds;
+        }
+
+        public long getTotalMatches() {
+            return totalMatches;
+        }
+
+        public Map<String, Map<String, Long>> getFacets() {
+            return facets;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            ordinals.clear();
+            freeOrdinals.clear();
+            nextOrdinal = 0;
+            live.clear();
+            byCategory.clear();
+            byLevel.clear();
+            byLanguage.clear();
+            byPricingType.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long lastId = 0L;
+        int loaded = 0;
+        List<CourseFacetView> batch;
+        do {
+            batch = courseRepository.findFacetViewsAfter(lastId, PageRequest.of(0, LOAD_BATCH_SIZE));
+            for (CourseFacetView view : batch) {
+                index(view.getId(), view.getCategoryId(), view.getLevel(), view.getLanguage(),
+                        view.getPricingType(), view.getPrice(), view.getRating());
+                lastId = view.getId();
+            }
+            loaded += batch.size();
+        } while (batch.size() == LOAD_BATCH_SIZE);
+
+        logger.info("Course facet index built with {} courses in {} ms", loaded, System.currentTimeMillis() - start);
+    }
+
+    public void index(Course course) {
+        index(course.getId(),
+                course.getCategory() != null ? course.getCategory().getId() : null,
+                course.getLevel(),
+                course.getLanguage(),
+                course.getPricingType(),
+                course.getPrice(),
+                course.getRating());
+    }
+
+    public void remove(Long courseId) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.remove(courseId);
+            if (ordinal == null) {
+                return;
+            }
+            clearValues(ordinal);
+            live.clear(ordinal);
+            freeOrdinals.push(ordinal);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Result search(CourseFilterDTO filter, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            BitSet base = rangeFilter(filter, true);
+            BitSet baseWithoutRating = filter.getMinRating() != null ? rangeFilter(filter, false) : base;
+
+            BitSet category = filter.getCategoryId() != null ? valueBits(byCategory, filter.getCategoryId()) : null;
+            BitSet level = filter.getLevel() != null ? valueBits(byLevel, filter.getLevel()) : null;
+            BitSet language = filter.getLanguage() != null ? valueBits(byLanguage, filter.getLanguage()) : null;
+            BitSet pricingType = filter.getPricingType() != null ? valueBits(byPricingType, filter.getPricingType()) : null;
+
+            BitSet matches = intersect(base, category, level, language, pricingType);
+
+            // Each dimension is counted with every filter applied except its own, so clients can
+            // show how many results picking another value would give.
+            Map<String, Map<String, Long>> facets = new LinkedHashMap<>();
+            facets.put(FACET_CATEGORY, countValues(byCategory, intersect(base, null, level, language, pricingType), false));
+            facets.put(FACET_LEVEL, countValues(byLevel, intersect(base, category, null, language, pricingType), true));
+            facets.put(FACET_LANGUAGE, countValues(byLanguage, intersect(base, category, level, null, pricingType), true));
+            facets.put(FACET_PRICING_TYPE, countValues(byPricingType, intersect(base, category, level, language, null), true));
+            facets.put(FACET_RATING, countRatingBuckets(intersect(baseWithoutRating, category, level, language, pricingType)));
+
+            boolean newest = "newest".equalsIgnoreCase(filter.getSortBy());
+            return new Result(topIds(matches, newest, offset, limit), matches.cardinality(), facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void index(Long courseId, Long categoryId, CourseLevel level, CourseLanguage language,
+                       PricingType pricingType, BigDecimal price, Double rating) {
+        if (courseId == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.get(courseId);
+            if (ordinal != null) {
+                clearValues(ordinal);
+            } else {
+                ordinal = allocate(courseId);
+            }
+
+            courseIds[ordinal] = courseId;
+            categoryIds[ordinal] = categoryId != null ? categoryId : NO_CATEGORY;
+            if (categoryId != null) {
+                byCategory.computeIfAbsent(categoryId, k -> new BitSet()).set(ordinal);
+            }
+            levels[ordinal] = setEnum(byLevel, level, ordinal);
+            languages[ordinal] = setEnum(byLanguage, language, ordinal);
+            pricingTypes[ordinal] = setEnum(byPricingType, pricingType, ordinal);
+            prices[ordinal] = price != null ? price.doubleValue() : 0.0;
+            ratings[ordinal] = rating != null ? rating : 0.0;
+            live.set(ordinal);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private int allocate(Long courseId) {
+        int ordinal = freeOrdinals.isEmpty() ? nextOrdinal++ : freeOrdinals.pop();
+        if (ordinal >= courseIds.length) {
+            int capacity = Math.max(courseIds.length * 2, ordinal + 1);
+            courseIds = Arrays.copyOf(courseIds, capacity);
+            categoryIds = Arrays.copyOf(categoryIds, capacity);
+            levels = Arrays.copyOf(levels, capacity);
+            languages = Arrays.copyOf(languages, capacity);
+            pricingTypes = Arrays.copyOf(pricingTypes, capacity);
+            prices = Arrays.copyOf(prices, capacity);
+            ratings = Arrays.copyOf(ratings, capacity);
+        }
+        ordinals.put(courseId, ordinal);
+        return ordinal;
+    }
+
+    private void clearValues(int ordinal) {
+        long categoryId = categoryIds[ordinal];
+        if (categoryId != NO_CATEGORY) {
+            BitSet bits = byCategory.get(categoryId);
+            if (bits != null) {
+                bits.clear(ordinal);
+                if (bits.isEmpty()) {
+                    byCategory.remove(categoryId);
+                }
+            }
+        }
+        clearEnum(byLevel, CourseLevel.values(), levels[ordinal], ordinal);
+        clearEnum(byLanguage, CourseLanguage.values(), languages[ordinal], ordinal);
+        clearEnum(byPricingType, PricingType.values(), pricingTypes[ordinal], ordinal);
+    }
+
+    private static <E extends Enum<E>> byte setEnum(Map<E, BitSet> index, E value, int ordinal) {
+        if (value == null) {
+            return 0;
+        }
+        index.computeIfAbsent(value, k -> new BitSet()).set(ordinal);
+        return (byte) (value.ordinal() + 1);
+    }
+
+    private static <E extends Enum<E>> void clearEnum(Map<E, BitSet> index, E[] values, byte code, int ordinal) {
+        if (code > 0) {
+            BitSet bits = index.get(values[code - 1]);
+            if (bits != null) {
+                bits.clear(ordinal);
+            }
+        }
+    }
+
+    private static <K> BitSet valueBits(Map<K, BitSet> index, K key) {
+        BitSet bits = index.get(key);
+        return bits != null ? bits : new BitSet();
+    }
+
+    private BitSet rangeFilter(CourseFilterDTO filter, boolean includeRating) {
+        double minPrice = filter.getMinPrice() != null ? filter.getMinPrice().doubleValue() : Double.NEGATIVE_INFINITY;
+        double maxPrice = filter.getMaxPrice() != null ? filter.getMaxPrice().doubleValue() : Double.POSITIVE_INFINITY;
+        double minRating = includeRating && filter.getMinRating() != null ? filter.getMinRating() : Double.NEGATIVE_INFINITY;
+        if (filter.getMinPrice() == null && filter.getMaxPrice() == null && minRating == Double.NEGATIVE_INFINITY) {
+            return live;
+        }
+
+        BitSet result = new BitSet(nextOrdinal);
+        for (int i = live.nextSetBit(0); i >= 0; i = live.nextSetBit(i + 1)) {
+            if (prices[i] >= minPrice && prices[i] <= maxPrice && ratings[i] >= minRating) {
+                result.set(i);
+            }
+        }
+        return result;
+    }
+
+    private static BitSet intersect(BitSet base, BitSet... selections) {
+        BitSet result = (BitSet) base.clone();
+        for (BitSet selection : selections) {
+            if (selection != null) {
+                result.and(selection);
+            }
+        }
+        return result;
+    }
+
+    private static <K> Map<String, Long> countValues(Map<K, BitSet> index, BitSet candidates, boolean includeZero) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Map.Entry<K, BitSet> entry : index.entrySet()) {
+            BitSet overlap = (BitSet) candidates.clone();
+            overlap.and(entry.getValue());
+            long count = overlap.cardinality();
+            if (count > 0 || includeZero) {
+                counts.put(String.valueOf(entry.getKey()), count);
+            }
+        }
+        return counts;
+    }
+
+    private Map<String, Long> countRatingBuckets(BitSet candidates) {
+        long[] counts = new long[RATING_BUCKETS.length];
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            for (int b = 0; b < RATING_BUCKETS.length; b++) {
+                if (ratings[i] >= RATING_BUCKETS[b]) {
+                    counts[b]++;
+                }
+            }
+        }
+        Map<String, Long> buckets = new LinkedHashMap<>();
+        for (int b = 0; b < RATING_BUCKETS.length; b++) {
+            buckets.put(String.valueOf(RATING_BUCKETS[b]), counts[b]);
+        }
+        return buckets;
+    }
+
+    // Partial sort: only the best offset + limit ordinals are kept in a bounded heap
+    private List<Long> topIds(BitSet matches, boolean newest, int offset, int limit) {
+        int wanted = offset + limit;
+        if (limit <= 0 || wanted <= 0) {
+            return Collections.emptyList();
+        }
+
+        Comparator<Integer> order = newest
+                ? (a, b) -> Long.compare(courseIds[b], courseIds[a])
+                : (a, b) -> {
+                    int byRating = Double.compare(ratings[b], ratings[a]);
+                    return byRating != 0 ? byRating : Long.compare(courseIds[b], courseIds[a]);
+                };
+
+        PriorityQueue<Integer> heap = new PriorityQueue<>(Math.min(wanted, 1024), order.reversed());
+        for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+            heap.offer(i);
+            if (heap.size() > wanted) {
+                heap.poll();
+            }
+        }
+
+        List<Integer> best = new ArrayList<>(heap);
+        best.sort(order);
+        List<Long> ids = new ArrayList<>(Math.max(0, best.size() - offset));
+        for (int i = offset; i < best.size(); i++) {
+            ids.add(courseIds[best.get(i)]);
+        }
+        return ids;
+    }
+}
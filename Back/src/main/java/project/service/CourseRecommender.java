@@ -0,0 +1,309 @@
+package project.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import project.repository.EnrollmentRepository;
+import project.repository.projection.EnrollmentPairView;
+import project.utils.LongIntHashMap;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// "Students who took this also took" recommendations. A batch job streams enrollments ordered by
+// student, turns each student's courses into a basket of dense course ordinals and builds the sparse
+// item-item co-occurrence matrix row by row on the fork/join pool. Only the top neighbours of each
+// course are kept, in an immutable snapshot that is swapped in whole, so lookups are plain reads.
+@Component
+public class CourseRecommender {
+
+    private static final Logger logger = LoggerFactory.getLogger(CourseRecommender.class);
+
+    public static final int MAX_RECOMMENDATIONS = 10;
+    private static final int CHUNK_SIZE = 10_000;
+    private static final int MAX_BASKET = 200; // caps the quadratic pair work of very active students
+    private static final int MIN_ROWS_PER_TASK = 64;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private volatile Snapshot snapshot = new Snapshot(new LongIntHashMap(4), new int[]{0}, new long[0]);
+    private volatile Map<String, Object> lastRun = Collections.emptyMap();
+
+    // Neighbours of the course with ordinal o are neighbourIds[offsets[o] .. offsets[o + 1]), best first
+    private static class Snapshot {
+        final LongIntHashMap ordinals;
+        final int[] offsets;
+        final long[] neighbourIds;
+
+        Snapshot(LongIntHashMap ordinals, int[] offsets, long[] neighbourIds) {
+            this.ordinals = ordinals;
+            this.offsets = offsets;
+            this.neighbourIds = neighbourIds;
+        }
+    }
+
+    // Baskets in CSR form: basket b holds course ordinals items[basketOffsets[b] .. basketOffsets[b + 1])
+    private static class Baskets {
+        final LongIntHashMap ordinals = new LongIntHashMap(1024);
+        long[] courseIds = new long[1024];
+        int[] degree = new int[1024]; // students per course, including single-course students
+        int courseCount = 0;
+
+        int[] items = new int[1 << 16];
+        int itemCount = 0;
+        int[] basketOffsets = new int[1 << 12];
+        int basketCount = 0;
+        long enrollments = 0;
+
+        int ordinal(long courseId) {
+            int ordinal = ordinals.get(courseId, -1);
+            if (ordinal < 0) {
+                if (courseCount == courseIds.length) {
+                    courseIds = Arrays.copyOf(courseIds, courseCount * 2);
+                    degree = Arrays.copyOf(degree, courseCount * 2);
+                }
+                ordinal = courseCount++;
+                courseIds[ordinal] = courseId;
+                ordinals.put(courseId, ordinal);
+            }
+            return ordinal;
+        }
+
+        void append(int ordinal) {
+            if (itemCount == items.length) {
+                items = Arrays.copyOf(items, itemCount * 2);
+            }
+            items[itemCount++] = ordinal;
+            degree[ordinal]++;
+        }
+
+        // Single-course baskets carry no co-occurrence and are dropped once counted in degree
+        void closeBasket(int start) {
+            if (itemCount - start < 2) {
+                itemCount = start;
+                return;
+            }
+            if (basketCount + 1 == basketOffsets.length) {
+                basketOffsets = Arrays.copyOf(basketOffsets, basketOffsets.length * 2);
+            }
+            basketCount++;
+            basketOffsets[basketCount] = itemCount;
+        }
+
+        long bytes() {
+            return 8L * courseIds.length + 4L * degree.length + 4L * items.length + 4L * basketOffsets.length
+                    + ordinals.bytes();
+        }
+    }
+
+    // Computes the top neighbours of a range of rows; rows are disjoint, so results need no locking
+    private static class RowTask extends RecursiveAction {
+        final Baskets baskets;
+        final int[] itemOffsets;
+        final int[] itemBaskets;
+        final int[] neighbours;
+        final int[] neighbourCounts;
+        final int rowsPerTask;
+        final int from;
+        final int to;
+        long pairs = 0;
+
+        RowTask(Baskets baskets, int[] itemOffsets, int[] itemBaskets, int[] neighbours, int[] neighbourCounts,
+                int rowsPerTask, int from, int to) {
+            this.baskets = baskets;
+            this.itemOffsets = itemOffsets;
+            this.itemBaskets = itemBaskets;
+            this.neighbours = neighbours;
+            this.neighbourCounts = neighbourCounts;
+            this.rowsPerTask = rowsPerTask;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > rowsPerTask) {
+                int middle = (from + to) >>> 1;
+                RowTask left = new RowTask(baskets, itemOffsets, itemBaskets, neighbours, neighbourCounts, rowsPerTask, from, middle);
+                RowTask right = new RowTask(baskets, itemOffsets, itemBaskets, neighbours, neighbourCounts, rowsPerTask, middle, to);
+                invokeAll(left, right);
+                pairs = left.pairs + right.pairs;
+                return;
+            }
+
+            // Dense scratch row, reset through the touched list so each leaf allocates it once
+            int[] coCounts = new int[baskets.courseCount];
+            int[] touched = new int[baskets.courseCount];
+            int[] bestItems = new int[MAX_RECOMMENDATIONS];
+            double[] bestScores = new double[MAX_RECOMMENDATIONS];
+            for (int row = from; row < to; row++) {
+                int touchedCount = 0;
+                for (int p = itemOffsets[row]; p < itemOffsets[row + 1]; p++) {
+                    int basket = itemBaskets[p];
+                    for (int q = baskets.basketOffsets[basket]; q < baskets.basketOffsets[basket + 1]; q++) {
+                        int other = baskets.items[q];
+                        if (other != row && coCounts[other]++ == 0) {
+                            touched[touchedCount++] = other;
+                        }
+                    }
+                }
+                pairs += touchedCount;
+
+                // Cosine similarity keeps globally popular courses from topping every list
+                int kept = 0;
+                for (int t = 0; t < touchedCount; t++) {
+                    int other = touched[t];
+                    double score = coCounts[other] / Math.sqrt((double) baskets.degree[row] * baskets.degree[other]);
+                    coCounts[other] = 0;
+                    if (kept < MAX_RECOMMENDATIONS) {
+                        kept++;
+                    } else if (score <= bestScores[kept - 1]) {
+                        continue;
+                    }
+                    int position = kept - 1;
+                    while (position > 0 && bestScores[position - 1] < score) {
+                        bestScores[position] = bestScores[position - 1];
+                        bestItems[position] = bestItems[position - 1];
+                        position--;
+                    }
+                    bestScores[position] = score;
+                    bestItems[position] = other;
+                }
+                System.arraycopy(bestItems, 0, neighbours, row * MAX_RECOMMENDATIONS, kept);
+                neighbourCounts[row] = kept;
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${course.recommendations.cron:0 30 3 * * *}")
+    public void rebuild() {
+        if (!running.compareAndSet(false, true)) {
+            logger.info("Recommendation rebuild already in progress, skipping");
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            Runtime runtime = Runtime.getRuntime();
+            long heapBefore = runtime.totalMemory() - runtime.freeMemory();
+
+            Baskets baskets = readBaskets();
+            long readMillis = System.currentTimeMillis() - start;
+
+            // Transpose baskets into course ordinal -> baskets containing it
+            int courseCount = baskets.courseCount;
+            int[] itemOffsets = new int[courseCount + 1];
+            int basketItems = baskets.basketOffsets[baskets.basketCount];
+            for (int i = 0; i < basketItems; i++) {
+                itemOffsets[baskets.items[i] + 1]++;
+            }
+            for (int o = 0; o < courseCount; o++) {
+                itemOffsets[o + 1] += itemOffsets[o];
+            }
+            int[] itemBaskets = new int[basketItems];
+            int[] fill = Arrays.copyOf(itemOffsets, courseCount);
+            for (int b = 0; b < baskets.basketCount; b++) {
+                for (int i = baskets.basketOffsets[b]; i < baskets.basketOffsets[b + 1]; i++) {
+                    itemBaskets[fill[baskets.items[i]]++] = b;
+                }
+            }
+
+            int[] neighbours = new int[courseCount * MAX_RECOMMENDATIONS];
+            int[] neighbourCounts = new int[courseCount];
+            ForkJoinPool pool = ForkJoinPool.commonPool();
+            int rowsPerTask = Math.max(MIN_ROWS_PER_TASK, courseCount / (4 * pool.getParallelism()));
+            RowTask task = new RowTask(baskets, itemOffsets, itemBaskets, neighbours, neighbourCounts, rowsPerTask, 0, courseCount);
+            pool.invoke(task);
+
+            int[] offsets = new int[courseCount + 1];
+            for (int o = 0; o < courseCount; o++) {
+                offsets[o + 1] = offsets[o] + neighbourCounts[o];
+            }
+            long[] neighbourIds = new long[offsets[courseCount]];
+            for (int o = 0; o < courseCount; o++) {
+                for (int n = 0; n < neighbourCounts[o]; n++) {
+                    neighbourIds[offsets[o] + n] = baskets.courseIds[neighbours[o * MAX_RECOMMENDATIONS + n]];
+                }
+            }
+            snapshot = new Snapshot(baskets.ordinals, offsets, neighbourIds);
+
+            long workingBytes = baskets.bytes() + 4L * (itemOffsets.length + itemBaskets.length + neighbours.length)
+                    + 4L * courseCount * 2 * pool.getParallelism();
+            long heapAfter = runtime.totalMemory() - runtime.freeMemory();
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("enrollments", baskets.enrollments);
+            stats.put("baskets", baskets.basketCount);
+            stats.put("courses", courseCount);
+            stats.put("coOccurrencePairs", task.pairs);
+            stats.put("readMillis", readMillis);
+            stats.put("totalMillis", System.currentTimeMillis() - start);
+            stats.put("workingSetBytes", workingBytes);
+            stats.put("snapshotBytes", 8L * neighbourIds.length + 4L * offsets.length + baskets.ordinals.bytes());
+            stats.put("heapDeltaBytes", heapAfter - heapBefore);
+            stats.put("completedAt", new Date());
+            lastRun = Collections.unmodifiableMap(stats);
+            logger.info("Course recommendations rebuilt: {}", stats);
+        } catch (RuntimeException e) {
+            logger.error("Course recommendation rebuild failed, keeping previous snapshot", e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    public List<Long> recommend(Long courseId, int limit) {
+        Snapshot current = snapshot;
+        int ordinal = current.ordinals.get(courseId, -1);
+        if (ordinal < 0) {
+            return Collections.emptyList();
+        }
+        int from = current.offsets[ordinal];
+        int to = Math.min(current.offsets[ordinal + 1], from + Math.max(0, limit));
+        List<Long> ids = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            ids.add(current.neighbourIds[i]);
+        }
+        return ids;
+    }
+
+    public Map<String, Object> stats() {
+        return lastRun;
+    }
+
+    // Streams enrollments in (student, course) keyset order so each student's basket is contiguous
+    private Baskets readBaskets() {
+        Baskets baskets = new Baskets();
+        long lastStudentId = 0L;
+        long lastCourseId = 0L;
+        long currentStudentId = Long.MIN_VALUE;
+        int basketStart = 0;
+        List<EnrollmentPairView> chunk;
+        do {
+            chunk = enrollmentRepository.findPairsAfter(lastStudentId, lastCourseId, PageRequest.of(0, CHUNK_SIZE));
+            for (EnrollmentPairView pair : chunk) {
+                long studentId = pair.getStudentId();
+                if (studentId != currentStudentId) {
+                    baskets.closeBasket(basketStart);
+                    basketStart = baskets.itemCount;
+                    currentStudentId = studentId;
+                }
+                if (baskets.itemCount - basketStart < MAX_BASKET) {
+                    baskets.append(baskets.ordinal(pair.getCourseId()));
+                }
+                baskets.enrollments++;
+                lastStudentId = studentId;
+                lastCourseId = pair.getCourseId();
+            }
+        } while (chunk.size() == CHUNK_SIZE);
+        baskets.closeBasket(basketStart);
+        return baskets;
+    }
+}
@@ -0,0 +1,286 @@
+package project.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import project.models.Course;
+import project.repository.CourseRepository;
+import project.repository.projection.CourseSearchView;
+import project.utils.TextAnalyzer;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+// In-process inverted index over course title, description, category name and instructor username.
+// Ranking is BM25 over boost-weighted term frequencies; the last query token also matches as a
+// prefix and tokens without an exact match fall back to terms within a small edit distance.
+@Component
+public class CourseSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(CourseSearchIndex.class);
+
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    private static final float TITLE_BOOST = 3.0f;
+    private static final float CATEGORY_BOOST = 2.0f;
+    private static final float INSTRUCTOR_BOOST = 2.0f;
+    private static final float DESCRIPTION_BOOST = 1.0f;
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private static final double PREFIX_WEIGHT = 0.8;
+    private static final double FUZZY_WEIGHT = 0.6;
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MIN_FUZZY_LENGTH = 4;
+    private static final int MAX_EXPANSIONS = 64;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // term -> course id -> boost-weighted term frequency
+    private TreeMap<String, Map<Long, Float>> postings = new TreeMap<>();
+    private Map<Long, Document> documents = new HashMap<>();
+    private double totalLength = 0;
+
+    private static class Document {
+        final Map<String, Float> termFrequencies;
+        final float length;
+
+        Document(Map<String, Float> termFrequencies, float length) {
+            this.termFrequencies = termFrequencies;
+            this.length = length;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        TreeMap<String, Map<Long, Float>> newPostings = new TreeMap<>();
+        Map<Long, Document> newDocuments = new HashMap<>();
+        double newTotalLength = 0;
+
+        long lastId = 0L;
+        List<CourseSearchView> batch;
+        do {
+            batch = courseRepository.findSearchViewsAfter(lastId, PageRequest.of(0, LOAD_BATCH_SIZE));
+            // Tokenizing dominates the rebuild, so each batch is analyzed on the common fork/join pool
+            Map<Long, Document> analyzed = batch.parallelStream()
+                    .collect(Collectors.toConcurrentMap(CourseSearchView::getId, view -> analyze(view.getTitle(),
+                            view.getDescription(), view.getCategoryName(), view.getInstructorUsername())));
+            for (Map.Entry<Long, Document> entry : analyzed.entrySet()) {
+                newDocuments.put(entry.getKey(), entry.getValue());
+                newTotalLength += entry.getValue().length;
+                addPostings(newPostings, entry.getKey(), entry.getValue());
+            }
+            if (!batch.isEmpty()) {
+                lastId = batch.get(batch.size() - 1).getId();
+            }
+        } while (batch.size() == LOAD_BATCH_SIZE);
+
+        lock.writeLock().lock();
+        try {
+            postings = newPostings;
+            documents = newDocuments;
+            totalLength = newTotalLength;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Course search index built with {} courses and {} terms in {} ms",
+                newDocuments.size(), newPostings.size(), System.currentTimeMillis() - start);
+    }
+
+    public void index(Course course) {
+        String categoryName = course.getCategory() != null ? course.getCategory().getName() : null;
+        String instructorUsername = course.getInstructor() != null && course.getInstructor().getUser() != null
+                ? course.getInstructor().getUser().getUsername()
+                : null;
+        put(course.getId(), analyze(course.getTitle(), course.getDescription(), categoryName, instructorUsername));
+    }
+
+    // Category names and instructor usernames are denormalized into course documents
+    public void reindexCategory(Long categoryId) {
+        courseRepository.findSearchViewsByCategoryId(categoryId).forEach(this::index);
+    }
+
+    public void reindexInstructor(Long instructorId) {
+        courseRepository.findSearchViewsByInstructorId(instructorId).forEach(this::index);
+    }
+
+    public void remove(Long courseId) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(courseId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Returns course ids ranked by relevance, skipping the first offset hits
+    public List<Long> search(String query, int offset, int limit) {
+        List<String> tokens = TextAnalyzer.tokenize(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        lock.readLock().lock();
+        try {
+            if (documents.isEmpty()) {
+                return Collections.emptyList();
+            }
+            double averageLength = totalLength / documents.size();
+            Map<Long, Double> scores = new HashMap<>();
+
+            for (int i = 0; i < tokens.size(); i++) {
+                String token = tokens.get(i);
+                boolean lastToken = i == tokens.size() - 1;
+                // Best score per course for this token, so several expansions do not add up
+                Map<Long, Double> tokenScores = new HashMap<>();
+
+                Map<Long, Float> exact = postings.get(token);
+                if (exact != null) {
+                    accumulate(tokenScores, exact, 1.0, averageLength);
+                }
+                if (lastToken && token.length() >= MIN_PREFIX_LENGTH) {
+                    int expansions = 0;
+                    for (Map.Entry<String, Map<Long, Float>> entry : postings.subMap(token, false, token + Character.MAX_VALUE, false).entrySet()) {
+                        if (++expansions > MAX_EXPANSIONS) {
+                            break;
+                        }
+                        accumulate(tokenScores, entry.getValue(), PREFIX_WEIGHT, averageLength);
+                    }
+                }
+                if (exact == null && token.length() >= MIN_FUZZY_LENGTH) {
+                    accumulateFuzzy(tokenScores, token, averageLength);
+                }
+
+                tokenScores.forEach((courseId, score) -> scores.merge(courseId, score, Double::sum));
+            }
+
+            return topIds(scores, offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void index(CourseSearchView view) {
+        put(view.getId(), analyze(view.getTitle(), view.getDescription(), view.getCategoryName(), view.getInstructorUsername()));
+    }
+
+    private void put(Long courseId, Document document) {
+        if (courseId == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            removeDocument(courseId);
+            documents.put(courseId, document);
+            totalLength += document.length;
+            addPostings(postings, courseId, document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeDocument(Long courseId) {
+        Document previous = documents.remove(courseId);
+        if (previous == null) {
+            return;
+        }
+        totalLength -= previous.length;
+        for (String term : previous.termFrequencies.keySet()) {
+            Map<Long, Float> posting = postings.get(term);
+            if (posting != null) {
+                posting.remove(courseId);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    private static void addPostings(TreeMap<String, Map<Long, Float>> target, Long courseId, Document document) {
+        for (Map.Entry<String, Float> entry : document.termFrequencies.entrySet()) {
+            target.computeIfAbsent(entry.getKey(), k -> new HashMap<>()).put(courseId, entry.getValue());
+        }
+    }
+
+    private static Document analyze(String title, String description, String categoryName, String instructorUsername) {
+        Map<String, Float> termFrequencies = new HashMap<>();
+        float length = 0;
+        length += addField(termFrequencies, title, TITLE_BOOST);
+        length += addField(termFrequencies, categoryName, CATEGORY_BOOST);
+        length += addField(termFrequencies, instructorUsername, INSTRUCTOR_BOOST);
+        length += addField(termFrequencies, description, DESCRIPTION_BOOST);
+        return new Document(termFrequencies, length);
+    }
+
+    private static float addField(Map<String, Float> termFrequencies, String text, float boost) {
+        List<String> tokens = TextAnalyzer.tokenize(text);
+        for (String token : tokens) {
+            termFrequencies.merge(token, boost, Float::sum);
+        }
+        return tokens.size() * boost;
+    }
+
+    private void accumulate(Map<Long, Double> tokenScores, Map<Long, Float> posting, double weight, double averageLength) {
+        double documentCount = documents.size();
+        double idf = Math.log(1 + (documentCount - posting.size() + 0.5) / (posting.size() + 0.5));
+        for (Map.Entry<Long, Float> entry : posting.entrySet()) {
+            Document document = documents.get(entry.getKey());
+            double tf = entry.getValue();
+            double norm = K1 * (1 - B + B * (document.length / averageLength));
+            double score = weight * idf * (tf * (K1 + 1)) / (tf + norm);
+            tokenScores.merge(entry.getKey(), score, Math::max);
+        }
+    }
+
+    // Candidates share the first character, which keeps the scan to a slice of the dictionary
+    private void accumulateFuzzy(Map<Long, Double> tokenScores, String token, double averageLength) {
+        int maxEdits = token.length() >= 8 ? 2 : 1;
+        String first = token.substring(0, 1);
+        int expansions = 0;
+        for (Map.Entry<String, Map<Long, Float>> entry : postings.subMap(first, true, first + Character.MAX_VALUE, false).entrySet()) {
+            String term = entry.getKey();
+            if (Math.abs(term.length() - token.length()) > maxEdits || !TextAnalyzer.withinEditDistance(token, term, maxEdits)) {
+                continue;
+            }
+            accumulate(tokenScores, entry.getValue(), FUZZY_WEIGHT, averageLength);
+            if (++expansions >= MAX_EXPANSIONS) {
+                break;
+            }
+        }
+    }
+
+    private static List<Long> topIds(Map<Long, Double> scores, int offset, int limit) {
+        int wanted = offset + limit;
+        if (limit <= 0 || wanted <= 0) {
+            return Collections.emptyList();
+        }
+        Comparator<Map.Entry<Long, Double>> order = Map.Entry.<Long, Double>comparingByValue().reversed()
+                .thenComparing(Map.Entry.<Long, Double>comparingByKey().reversed());
+
+        PriorityQueue<Map.Entry<Long, Double>> heap = new PriorityQueue<>(Math.min(wanted, 1024), order.reversed());
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            heap.offer(entry);
+            if (heap.size() > wanted) {
+                heap.poll();
+            }
+        }
+
+        List<Map.Entry<Long, Double>> best = new ArrayList<>(heap);
+        best.sort(order);
+        List<Long> ids = new ArrayList<>();
+        for (int i = offset; i < best.size(); i++) {
+            ids.add(best.get(i).getKey());
+        }
+        return ids;
+    }
+}
@@ -1,40 +1,49 @@
 package project.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 import project.dto.CourseDTO;
+import project.dto.CourseFacetResultDTO;
+import project.dto.CourseFilterDTO;
+import project.dto.CoursePageDTO;
+import project.dto.SuggestionDTO;
 import project.models.*;
 import project.repository.CourseCategoryRepository;
 import project.repository.CourseRepository;
 import project.repository.InstructorRepository;
 import project.repository.UserRepository;
 import project.exception.ResourceNotFoundException;
+import project.utils.CatalogCursor;
+import project.utils.TransactionCallbacks;
 
-import javax.imageio.IIOImage;
-import javax.imageio.ImageIO;
-import javax.imageio.ImageWriteParam;
-import javax.imageio.ImageWriter;
-import java.awt.image.BufferedImage;
 import java.io.IOException;
-import java.io.OutputStream;
 import java.math.BigDecimal;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class CourseService {
 
-    private final String UPLOAD_DIR = "uploads/courses/";
+    private static final String IMAGE_NAMESPACE = "courses";
+    private static final int DEFAULT_CATALOG_PAGE_SIZE = 20;
+    private static final int MAX_CATALOG_PAGE_SIZE = 50;
+    // Ranked pages past this many hits are not served; it also keeps page * size within an int
+    private static final int MAX_CATALOG_OFFSET = 10_000;
 
     @Autowired
     private CourseRepository courseRepository;
 
+    @Autowired
+    private ImagePipeline imagePipeline;
+
     @Autowired
     private UserRepository userRepository;
 
@@ -50,6 +59,27 @@ public class CourseService {
     @Autowired
     private NotificationService notificationService; // Inject NotificationService to send notifications
 
+    @Autowired
+    private CourseFacetIndex courseFacetIndex;
+
+    @Autowired
+    private CourseSearchIndex courseSearchIndex;
+
+    @Autowired
+    private CourseSuggestionIndex courseSuggestionIndex;
+
+    @Autowired
+    private CourseCache courseCache;
+
+    @Autowired
+    private TrendingCourseTracker trendingCourseTracker;
+
+    @Autowired
+    private CourseRecommender courseRecommender;
+
+    @Autowired
+    private InstructorStatsService instructorStatsService;
+
     public CourseDTO createCourse(CourseDTO courseDTO, Long categoryId, String username, MultipartFile image) throws IOException {
         UserEntity user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
@@ -82,6 +112,11 @@ public class CourseService {
         handlePricingAndPrice(course);
 
         Course savedCourse = courseRepository.save(course);
+        courseFacetIndex.index(savedCourse);
+        courseSearchIndex.index(savedCourse);
+        courseSuggestionIndex.putCourse(savedCourse);
+        courseCache.evictInstructor(instructor.getId());
+        instructorStatsService.courseAdded(savedCourse);
 
         // Notify the instructor's followers about the new course
         notifyFollowersOfNewCourse(instructor, savedCourse);
@@ -130,10 +165,10 @@ public class CourseService {
         course.setPricingType(courseDTO.getPricingType());
         course.setPrice(courseDTO.getPrice());
 
+        String replacedImageUrl = null;
         if (image != null) {
-            deleteImage(course.getImageUrl());
-            String imageUrl = uploadImage(image);
-            course.setImageUrl(imageUrl);
+            replacedImageUrl = course.getImageUrl();
+            course.setImageUrl(uploadImage(image));
         }
 
         handlePricingAndPrice(course);
@@ -145,6 +180,14 @@ public class CourseService {
         }
 
         Course updatedCourse = courseRepository.save(course);
+        if (replacedImageUrl != null) {
+            String imageUrl = replacedImageUrl;
+            TransactionCallbacks.afterCommit(() -> imagePipeline.delete(imageUrl));
+        }
+        courseFacetIndex.index(updatedCourse);
+        courseSearchIndex.index(updatedCourse);
+        courseSuggestionIndex.putCourse(updatedCourse);
+        courseCache.evictCourse(id, instructorIdOf(updatedCourse));
         return CourseDTO.fromEntity(updatedCourse);
     }
 
@@ -163,12 +206,20 @@ public class CourseService {
     public void deleteCourse(Long id) {
         Course course = getCourseEntityById(id);
         courseRepository.delete(course);
+        instructorStatsService.courseRemoved(course);
+        courseFacetIndex.remove(id);
+        courseSearchIndex.remove(id);
+        courseSuggestionIndex.removeCourse(id);
+        trendingCourseTracker.removeCourse(id);
+        courseCache.evictCourse(id, instructorIdOf(course));
     }
 
     public CourseDTO getCourseById(Long id) {
-        Course course = courseRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Course not found with id: " + id));
-        return CourseDTO.fromEntity(course);
+        return courseCache.getCourse(id, courseId -> {
+            Course course = courseRepository.findById(courseId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Course not found with id: " + courseId));
+            return CourseDTO.fromEntity(course);
+        });
     }
 
     public List<CourseDTO> getAllCourses() {
@@ -177,62 +228,162 @@ public class CourseService {
                 .collect(Collectors.toList());
     }
 
-    private Course getCourseEntityById(Long id) {
-        return courseRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Course not found with id: " + id));
-    }
-
-    private String uploadImage(MultipartFile image) throws IOException {
-        if (image.isEmpty()) {
-            throw new IllegalArgumentException("Image file is empty");
+    public CoursePageDTO getCatalogPage(String sortBy, String cursorToken, Integer size) {
+        CatalogCursor.Sort sort = CatalogCursor.Sort.fromParam(sortBy);
+        CatalogCursor cursor = cursorToken != null && !cursorToken.isBlank()
+                ? CatalogCursor.decode(cursorToken, sort)
+                : CatalogCursor.start(sort);
+
+        int pageSize = size == null ? DEFAULT_CATALOG_PAGE_SIZE : Math.max(1, Math.min(size, MAX_CATALOG_PAGE_SIZE));
+        // Fetch one extra row to know whether another page exists
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+
+        List<CourseDTO> rows;
+        switch (sort) {
+            case STUDENTS:
+                rows = courseRepository.findCatalogPageByTotalStudents(cursor.studentsKey(), cursor.getLastId(), limit);
+                break;
+            case RECENT:
+                rows = courseRepository.findCatalogPageByLastUpdate(cursor.recentKey(), cursor.getLastId(), limit);
+                break;
+            case NEWEST:
+                rows = courseRepository.findCatalogPageById(cursor.getLastId(), limit);
+                break;
+            default:
+                rows = courseRepository.findCatalogPageByRating(cursor.ratingKey(), cursor.getLastId(), limit);
+                break;
         }
 
-        Path uploadPath = Paths.get(UPLOAD_DIR);
-        if (!Files.exists(uploadPath)) {
-            Files.createDirectories(uploadPath);
+        if (rows.size() <= pageSize) {
+            return new CoursePageDTO(rows, null);
         }
 
-        String originalFilename = image.getOriginalFilename();
-        String extension = originalFilename != null ? originalFilename.substring(originalFilename.lastIndexOf(".")) : ".jpg";
-        String fileName = UUID.randomUUID().toString() + extension;
-        Path filePath = uploadPath.resolve(fileName);
+        List<CourseDTO> page = rows.subList(0, pageSize);
+        CourseDTO last = page.get(pageSize - 1);
+        return new CoursePageDTO(page, nextCursor(sort, last).encode());
+    }
 
-        BufferedImage originalImage = ImageIO.read(image.getInputStream());
+    private CatalogCursor nextCursor(CatalogCursor.Sort sort, CourseDTO last) {
+        switch (sort) {
+            case STUDENTS:
+                return CatalogCursor.after(sort, last.getTotalStudents(), last.getId());
+            case RECENT:
+                return CatalogCursor.after(sort, last.getLastUpdate(), last.getId());
+            case NEWEST:
+                return CatalogCursor.after(sort, null, last.getId());
+            default:
+                return CatalogCursor.after(sort, last.getRating(), last.getId());
+        }
+    }
 
-        OutputStream os = Files.newOutputStream(filePath);
+    public CourseFacetResultDTO filterCourses(CourseFilterDTO filter) {
+        int size = Math.max(1, Math.min(filter.getSize(), MAX_CATALOG_PAGE_SIZE));
+        int page = Math.max(0, filter.getPage());
+        long offset = (long) page * size;
+
+        // Past the last servable page only the totals and facets are returned
+        CourseFacetIndex.Result result = offset > MAX_CATALOG_OFFSET
+                ? courseFacetIndex.search(filter, 0, 0)
+                : courseFacetIndex.search(filter, (int) offset, size);
+
+        CourseFacetResultDTO dto = new CourseFacetResultDTO();
+        dto.setCourses(getCourseDTOsInOrder(result.getCourseIds()));
+        dto.setTotalMatches(result.getTotalMatches());
+        dto.setPage(page);
+        dto.setSize(size);
+        dto.setFacets(result.getFacets());
+        return dto;
+    }
 
-        ImageWriter writer = ImageIO.getImageWritersByFormatName(extension.substring(1)).next();
+    public List<CourseDTO> searchCourses(String query, int page, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_CATALOG_PAGE_SIZE));
+        long offset = (long) Math.max(0, page) * pageSize;
+        if (offset > MAX_CATALOG_OFFSET) {
+            return Collections.emptyList();
+        }
+        List<Long> courseIds = courseSearchIndex.search(query, (int) offset, pageSize);
+        return getCourseDTOsInOrder(courseIds);
+    }
 
-        ImageWriteParam param = writer.getDefaultWriteParam();
-        if (param.canWriteCompressed()) {
-            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
-            param.setCompressionQuality(0.7f);
+    // Courses removed in bulk with their instructor's account bypass deleteCourse
+    public void evictDeletedInstructor(Long instructorId, List<Long> courseIds) {
+        for (Long courseId : courseIds) {
+            courseFacetIndex.remove(courseId);
+            courseSearchIndex.remove(courseId);
+            courseSuggestionIndex.removeCourse(courseId);
+            courseCache.evictCourse(courseId, instructorId);
         }
+        courseSuggestionIndex.removeInstructor(instructorId);
+        courseCache.evictInstructor(instructorId);
+    }
 
-        writer.setOutput(ImageIO.createImageOutputStream(os));
-        writer.write(null, new IIOImage(originalImage, null, null), param);
+    public void onInstructorRenamed(Long instructorId, String username) {
+        courseSearchIndex.reindexInstructor(instructorId);
+        courseSuggestionIndex.putInstructor(instructorId, username);
+        // Every cached DTO of this instructor carries the old name
+        courseCache.evictAll();
+    }
 
-        writer.dispose();
-        os.close();
+    public List<SuggestionDTO> suggest(String query, int limit) {
+        return courseSuggestionIndex.suggest(query, limit);
+    }
+
+    public List<CourseDTO> getTrendingCourses(String window, int limit) {
+        return trendingCourseTracker.getTrending(window, Math.min(limit, TrendingCourseTracker.MAX_TRENDING));
+    }
 
-        return "/uploads/courses/" + fileName;
+    // Neighbour ids come from the in-memory snapshot and their DTOs from the course cache;
+    // the ones not cached yet are loaded together in one query
+    public List<CourseDTO> getRecommendedCourses(Long courseId, int limit) {
+        List<Long> ids = courseRecommender.recommend(courseId, Math.min(limit, CourseRecommender.MAX_RECOMMENDATIONS));
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, CourseDTO> byId = courseCache.getCourses(ids, missing -> courseRepository.findCourseDetailDTOsByIdIn(missing)
+                .stream()
+                .collect(Collectors.toMap(CourseDTO::getId, Function.identity())));
+        List<CourseDTO> courses = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            CourseDTO course = byId.get(id);
+            if (course != null) {
+                courses.add(course);
+            }
+        }
+        return courses;
     }
 
-    private void deleteImage(String imageUrl) {
-        if (imageUrl != null && imageUrl.startsWith("/uploads/courses/")) {
-            try {
-                String fileName = imageUrl.substring("/uploads/courses/".length());
-                Path filePath = Paths.get(UPLOAD_DIR + fileName);
-                Files.deleteIfExists(filePath);
-            } catch (IOException e) {
-                e.printStackTrace();
+    // Loads the projected DTOs for the given ids in one query, keeping the caller's ordering
+    private List<CourseDTO> getCourseDTOsInOrder(List<Long> courseIds) {
+        if (courseIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, CourseDTO> byId = courseRepository.findCourseDTOsByIdIn(courseIds).stream()
+                .collect(Collectors.toMap(CourseDTO::getId, Function.identity()));
+        List<CourseDTO> ordered = new ArrayList<>(courseIds.size());
+        for (Long id : courseIds) {
+            CourseDTO dto = byId.get(id);
+            if (dto != null) {
+                ordered.add(dto);
             }
         }
+        return ordered;
+    }
+
+    private Course getCourseEntityById(Long id) {
+        return courseRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Course not found with id: " + id));
+    }
+
+    private String uploadImage(MultipartFile image) throws IOException {
+        return imagePipeline.store(IMAGE_NAMESPACE, image);
     }
 
     public List<CourseDTO> getCoursesByInstructorId(Long instructorId) {
-        return courseRepository.findByInstructorId(instructorId).stream()
-                .map(CourseDTO::fromEntity)
-                .collect(Collectors.toList());
+        return courseCache.getInstructorCourses(instructorId,
+                id -> List.copyOf(courseRepository.findCourseDTOsByInstructorId(id)));
+    }
+
+    private static Long instructorIdOf(Course course) {
+        return course.getInstructor() != null ? course.getInstructor().getId() : null;
     }
 }
\ No newline at end of file
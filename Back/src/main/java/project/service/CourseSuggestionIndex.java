@@ -0,0 +1,264 @@
+package project.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import project.dto.SuggestionDTO;
+import project.models.Course;
+import project.models.CourseCategory;
+import project.models.InstructorStatus;
+import project.repository.CourseCategoryRepository;
+import project.repository.CourseRepository;
+import project.repository.InstructorRepository;
+import project.repository.projection.CourseSuggestionView;
+import project.repository.projection.InstructorNameView;
+import project.utils.CompletionTrie;
+import project.utils.TextAnalyzer;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Search-box autocomplete for course titles, category names and instructor usernames.
+// Writes only touch the source maps and mark the index dirty; a background task rebuilds an
+// immutable CompletionTrie snapshot and swaps it in, so the per-keystroke read path never locks.
+@Component
+public class CourseSuggestionIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(CourseSuggestionIndex.class);
+
+    public static final int MAX_SUGGESTIONS = 10;
+    private static final int MAX_WORD_SUFFIXES = 4; // "java" also completes "Advanced Java ..."
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    private static final String[] TYPE_NAMES = {"COURSE", "CATEGORY", "INSTRUCTOR"};
+    private static final byte COURSE = 0;
+    private static final byte CATEGORY = 1;
+    private static final byte INSTRUCTOR = 2;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private CourseCategoryRepository courseCategoryRepository;
+
+    @Autowired
+    private InstructorRepository instructorRepository;
+
+    private final Map<Long, CourseEntry> courses = new ConcurrentHashMap<>();
+    private final Map<Long, String> categories = new ConcurrentHashMap<>();
+    private final Map<Long, String> instructors = new ConcurrentHashMap<>();
+    private final AtomicBoolean dirty = new AtomicBoolean(false);
+
+    private volatile Snapshot snapshot = new Snapshot(CompletionTrie.empty(MAX_SUGGESTIONS), new String[0], new byte[0], new long[0]);
+
+    private static class CourseEntry {
+        final String title;
+        final Long categoryId;
+        final Long instructorId;
+        final double weight;
+
+        CourseEntry(String title, Long categoryId, Long instructorId, int totalStudents, Double rating) {
+            this.title = title;
+            this.categoryId = categoryId;
+            this.instructorId = instructorId;
+            this.weight = courseWeight(totalStudents, rating);
+        }
+    }
+
+    private static class Snapshot {
+        final CompletionTrie trie;
+        final String[] texts;
+        final byte[] types;
+        final long[] ids;
+
+        Snapshot(CompletionTrie trie, String[] texts, byte[] types, long[] ids) {
+            this.trie = trie;
+            this.texts = texts;
+            this.types = types;
+            this.ids = ids;
+        }
+    }
+
+    private static class KeyRef {
+        final String key;
+        final int entry;
+
+        KeyRef(String key, int entry) {
+            this.key = key;
+            this.entry = entry;
+        }
+    }
+
+    // Popular, well-rated courses first; the log keeps large enrollments from drowning out ratings
+    private static double courseWeight(int totalStudents, Double rating) {
+        return (1.0 + (rating != null ? rating : 0.0)) * Math.log(2.0 + totalStudents);
+    }
+
+    // Weights drift with enrollments and reviews, so the sources are reloaded periodically
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${course.suggest.reload-ms:600000}", initialDelayString = "${course.suggest.reload-ms:600000}")
+    public void reload() {
+        long start = System.currentTimeMillis();
+        Map<Long, CourseEntry> loadedCourses = new HashMap<>();
+        long lastId = 0L;
+        List<CourseSuggestionView> batch;
+        do {
+            batch = courseRepository.findSuggestionViewsAfter(lastId, PageRequest.of(0, LOAD_BATCH_SIZE));
+            for (CourseSuggestionView view : batch) {
+                loadedCourses.put(view.getId(), new CourseEntry(view.getTitle(), view.getCategoryId(), view.getInstructorId(),
+                        view.getTotalStudents() != null ? view.getTotalStudents() : 0, view.getRating()));
+                lastId = view.getId();
+            }
+        } while (batch.size() == LOAD_BATCH_SIZE);
+
+        Map<Long, String> loadedCategories = new HashMap<>();
+        for (CourseCategory category : courseCategoryRepository.findAll()) {
+            loadedCategories.put(category.getId(), category.getName());
+        }
+        Map<Long, String> loadedInstructors = new HashMap<>();
+        for (InstructorNameView view : instructorRepository.findNamesByStatus(InstructorStatus.APPROVED)) {
+            loadedInstructors.put(view.getId(), view.getUsername());
+        }
+
+        courses.keySet().retainAll(loadedCourses.keySet());
+        courses.putAll(loadedCourses);
+        categories.keySet().retainAll(loadedCategories.keySet());
+        categories.putAll(loadedCategories);
+        instructors.keySet().retainAll(loadedInstructors.keySet());
+        instructors.putAll(loadedInstructors);
+
+        dirty.set(false);
+        rebuildSnapshot();
+        logger.info("Suggestion index reloaded with {} courses, {} categories and {} instructors in {} ms",
+                loadedCourses.size(), loadedCategories.size(), loadedInstructors.size(), System.currentTimeMillis() - start);
+    }
+
+    @Scheduled(fixedDelayString = "${course.suggest.refresh-ms:5000}")
+    public void refreshIfDirty() {
+        if (dirty.compareAndSet(true, false)) {
+            rebuildSnapshot();
+        }
+    }
+
+    public void putCourse(Course course) {
+        courses.put(course.getId(), new CourseEntry(course.getTitle(),
+                course.getCategory() != null ? course.getCategory().getId() : null,
+                course.getInstructor() != null ? course.getInstructor().getId() : null,
+                course.getTotalStudents(), course.getRating()));
+        dirty.set(true);
+    }
+
+    public void removeCourse(Long courseId) {
+        if (courses.remove(courseId) != null) {
+            dirty.set(true);
+        }
+    }
+
+    public void putCategory(Long categoryId, String name) {
+        categories.put(categoryId, name);
+        dirty.set(true);
+    }
+
+    public void removeCategory(Long categoryId) {
+        if (categories.remove(categoryId) != null) {
+            dirty.set(true);
+        }
+    }
+
+    public void putInstructor(Long instructorId, String username) {
+        instructors.put(instructorId, username);
+        dirty.set(true);
+    }
+
+    public void removeInstructor(Long instructorId) {
+        if (instructors.remove(instructorId) != null) {
+            dirty.set(true);
+        }
+    }
+
+    public List<SuggestionDTO> suggest(String query, int limit) {
+        String prefix = String.join(" ", TextAnalyzer.tokenize(query));
+        if (prefix.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Snapshot current = snapshot;
+        int[] entries = new int[Math.max(1, Math.min(limit, MAX_SUGGESTIONS))];
+        int count = current.trie.complete(prefix, entries);
+
+        List<SuggestionDTO> suggestions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int entry = entries[i];
+            suggestions.add(new SuggestionDTO(current.texts[entry], TYPE_NAMES[current.types[entry]], current.ids[entry]));
+        }
+        return suggestions;
+    }
+
+    private synchronized void rebuildSnapshot() {
+        Map<Long, CourseEntry> courseSource = new HashMap<>(courses);
+        Map<Long, String> categorySource = new HashMap<>(categories);
+        Map<Long, String> instructorSource = new HashMap<>(instructors);
+
+        // Categories and instructors are ranked by the combined weight of their courses
+        Map<Long, Double> categoryWeights = new HashMap<>();
+        Map<Long, Double> instructorWeights = new HashMap<>();
+        for (CourseEntry course : courseSource.values()) {
+            if (course.categoryId != null) {
+                categoryWeights.merge(course.categoryId, course.weight, Double::sum);
+            }
+            if (course.instructorId != null) {
+                instructorWeights.merge(course.instructorId, course.weight, Double::sum);
+            }
+        }
+
+        int size = courseSource.size() + categorySource.size() + instructorSource.size();
+        String[] texts = new String[size];
+        byte[] types = new byte[size];
+        long[] ids = new long[size];
+        double[] weights = new double[size];
+        List<KeyRef> keys = new ArrayList<>(size * 2);
+
+        int entry = 0;
+        for (Map.Entry<Long, CourseEntry> course : courseSource.entrySet()) {
+            entry = addEntry(keys, texts, types, ids, weights, entry, course.getValue().title, COURSE,
+                    course.getKey(), course.getValue().weight);
+        }
+        for (Map.Entry<Long, String> category : categorySource.entrySet()) {
+            entry = addEntry(keys, texts, types, ids, weights, entry, category.getValue(), CATEGORY,
+                    category.getKey(), 1.0 + categoryWeights.getOrDefault(category.getKey(), 0.0));
+        }
+        for (Map.Entry<Long, String> instructor : instructorSource.entrySet()) {
+            entry = addEntry(keys, texts, types, ids, weights, entry, instructor.getValue(), INSTRUCTOR,
+                    instructor.getKey(), 1.0 + instructorWeights.getOrDefault(instructor.getKey(), 0.0));
+        }
+
+        keys.sort(Comparator.comparing(ref -> ref.key));
+        String[] sortedKeys = new String[keys.size()];
+        int[] keyEntries = new int[keys.size()];
+        for (int i = 0; i < keys.size(); i++) {
+            sortedKeys[i] = keys.get(i).key;
+            keyEntries[i] = keys.get(i).entry;
+        }
+
+        snapshot = new Snapshot(new CompletionTrie(sortedKeys, keyEntries, weights, MAX_SUGGESTIONS), texts, types, ids);
+    }
+
+    private static int addEntry(List<KeyRef> keys, String[] texts, byte[] types, long[] ids, double[] weights,
+                                int entry, String text, byte type, Long id, double weight) {
+        texts[entry] = text;
+        types[entry] = type;
+        ids[entry] = id;
+        weights[entry] = weight;
+
+        List<String> tokens = TextAnalyzer.tokenize(text);
+        for (int start = 0; start < tokens.size() && start < MAX_WORD_SUFFIXES; start++) {
+            keys.add(new KeyRef(String.join(" ", tokens.subList(start, tokens.size())), entry));
+        }
+        return entry + 1;
+    }
+}
@@ -0,0 +1,153 @@
+package project.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+import project.dto.CourseDTO;
+import project.dto.DashboardEntryDTO;
+import project.dto.DashboardPageDTO;
+import project.dto.LessonDTO;
+import project.repository.CourseRepository;
+import project.repository.EnrollmentRepository;
+import project.repository.LessonRepository;
+import project.repository.projection.DashboardEnrollmentView;
+import project.repository.projection.LessonOutlineView;
+import project.utils.BoundedCache;
+import project.utils.TransactionCallbacks;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// "My Learning" dashboard: a page of the user's enrollments with course summaries, progress and the
+// next incomplete lesson, assembled from three queries whatever the page size. The default first
+// page is cached per user for a short time and evicted when the user's progress changes; heartbeats
+// not yet flushed are laid over every page when it is read, so the resume point is never stale.
+@Service
+public class DashboardService {
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 50;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private LessonRepository lessonRepository;
+
+    @Autowired
+    private EnrollmentHeartbeatBuffer heartbeatBuffer;
+
+    private final BoundedCache<String, DashboardPageDTO> firstPages;
+
+    public DashboardService(@Value("${dashboard.cache.max-size:10000}") int maxSize,
+                            @Value("${dashboard.cache.ttl-seconds:30}") long ttlSeconds) {
+        this.firstPages = new BoundedCache<>("dashboardFirstPages", maxSize, ttlSeconds);
+    }
+
+    public DashboardPageDTO getDashboard(String username, Integer page, Integer size) {
+        int pageNumber = page == null ? 0 : Math.max(0, page);
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        DashboardPageDTO dashboard = pageNumber == 0 && pageSize == DEFAULT_PAGE_SIZE
+                ? firstPages.get(username, name -> load(name, 0, DEFAULT_PAGE_SIZE))
+                : load(username, pageNumber, pageSize);
+        return withPendingHeartbeats(username, dashboard);
+    }
+
+    public void evict(String username) {
+        TransactionCallbacks.nowAndAfterCommit(() -> firstPages.invalidate(username));
+    }
+
+    // Used when a course's lessons change, which affects the students enrolled in it
+    public void evictCourse(Long courseId) {
+        List<String> usernames = enrollmentRepository.findStudentUsernamesByCourseId(courseId);
+        TransactionCallbacks.nowAndAfterCommit(() -> usernames.forEach(firstPages::invalidate));
+    }
+
+    public Map<String, Object> stats() {
+        return firstPages.stats();
+    }
+
+    private DashboardPageDTO load(String username, int page, int size) {
+        Slice<DashboardEnrollmentView> enrollments = enrollmentRepository.findDashboardByUsername(username, PageRequest.of(page, size));
+        if (enrollments.getContent().isEmpty()) {
+            return new DashboardPageDTO(Collections.emptyList(), page, size, false);
+        }
+
+        Set<Long> courseIds = enrollments.getContent().stream()
+                .map(DashboardEnrollmentView::getCourseId)
+                .collect(Collectors.toSet());
+        Map<Long, CourseDTO> courses = courseRepository.findCourseDTOsByIdIn(courseIds).stream()
+                .collect(Collectors.toMap(CourseDTO::getId, Function.identity()));
+        Map<Long, List<LessonOutlineView>> lessonsByCourse = lessonRepository.findOutlinesByCourseIdIn(courseIds).stream()
+                .collect(Collectors.groupingBy(LessonOutlineView::getCourseId));
+
+        List<DashboardEntryDTO> entries = new ArrayList<>(enrollments.getNumberOfElements());
+        for (DashboardEnrollmentView enrollment : enrollments) {
+            List<LessonOutlineView> lessons = lessonsByCourse.getOrDefault(enrollment.getCourseId(), Collections.emptyList());
+            entries.add(toEntry(enrollment, courses.get(enrollment.getCourseId()), lessons));
+        }
+        return new DashboardPageDTO(Collections.unmodifiableList(entries), page, size, enrollments.hasNext());
+    }
+
+    private DashboardPageDTO withPendingHeartbeats(String username, DashboardPageDTO dashboard) {
+        List<DashboardEntryDTO> entries = null;
+        for (int i = 0; i < dashboard.getEntries().size(); i++) {
+            DashboardEntryDTO entry = dashboard.getEntries().get(i);
+            EnrollmentHeartbeatBuffer.Heartbeat pending = heartbeatBuffer.pending(entry.getEnrollmentId(), username);
+            if (pending == null || (entry.getLastAccessedDate() != null && !pending.getAccessedAt().isAfter(entry.getLastAccessedDate()))) {
+                continue;
+            }
+            if (entries == null) {
+                entries = new ArrayList<>(dashboard.getEntries());
+            }
+            DashboardEntryDTO current = entry.copy();
+            current.setLastAccessedDate(pending.getAccessedAt());
+            current.setLastLessonId(pending.getLessonId());
+            current.setLastPositionSeconds(pending.getPositionSeconds());
+            entries.set(i, current);
+        }
+        if (entries == null) {
+            return dashboard;
+        }
+        return new DashboardPageDTO(Collections.unmodifiableList(entries), dashboard.getPage(), dashboard.getSize(), dashboard.isHasMore());
+    }
+
+    private DashboardEntryDTO toEntry(DashboardEnrollmentView enrollment, CourseDTO course, List<LessonOutlineView> lessons) {
+        DashboardEntryDTO entry = new DashboardEntryDTO();
+        entry.setEnrollmentId(enrollment.getEnrollmentId());
+        entry.setStatus(enrollment.getStatus());
+        entry.setProgressPercentage(enrollment.getProgressPercentage() != null ? enrollment.getProgressPercentage() : 0);
+        entry.setCompletedLessons(enrollment.getCompletedLessonsCount() != null ? enrollment.getCompletedLessonsCount() : 0);
+        entry.setTotalLessons(lessons.size());
+        entry.setEnrollmentDate(enrollment.getEnrollmentDate());
+        entry.setLastAccessedDate(enrollment.getLastAccessedDate());
+        entry.setLastLessonId(enrollment.getLastLessonId());
+        entry.setLastPositionSeconds(enrollment.getLastPositionSeconds());
+        entry.setCourse(course);
+        entry.setNextLesson(nextIncompleteLesson(enrollment.getCompletedLessons(), lessons));
+        return entry;
+    }
+
+    // Lessons arrive ordered by ordinal, so the first one without its bit set is the next to take
+    private static LessonDTO nextIncompleteLesson(byte[] completedLessons, List<LessonOutlineView> lessons) {
+        BitSet completed = completedLessons != null ? BitSet.valueOf(completedLessons) : new BitSet();
+        for (LessonOutlineView lesson : lessons) {
+            if (lesson.getOrdinal() == null || !completed.get(lesson.getOrdinal())) {
+                LessonDTO dto = new LessonDTO();
+                dto.setId(lesson.getId());
+                dto.setTitle(lesson.getTitle());
+                if (lesson.getVideoUrl() != null) {
+                    dto.setStreamUrl(LessonDTO.streamUrlOf(lesson.getCourseId(), lesson.getId()));
+                }
+                return dto;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,147 @@
+package project.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Write-behind buffer for lesson playback heartbeats. Heartbeats are coalesced per enrollment in
+// memory (latest wins) and written in JDBC batches on an interval, when the buffer reaches its
+// size threshold, and on shutdown. Callers check ownership before recording; each UPDATE is still
+// guarded by the owner's username and by the stored timestamp, so it never moves backwards.
+@Component
+public class EnrollmentHeartbeatBuffer {
+
+    private static final Logger logger = LoggerFactory.getLogger(EnrollmentHeartbeatBuffer.class);
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final String FLUSH_SQL = "UPDATE enrollments SET last_accessed_date = ?, last_lesson_id = ?, last_position_seconds = ? " +
+            "WHERE id = ? AND user_id = (SELECT u.id FROM users u WHERE u.username = ?) " +
+            "AND (last_accessed_date IS NULL OR last_accessed_date < ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final int flushThreshold;
+    private final ConcurrentHashMap<Long, Heartbeat> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public static class Heartbeat {
+        final String username;
+        final Long lessonId;
+        final Integer positionSeconds;
+        final LocalDateTime accessedAt;
+
+        Heartbeat(String username, Long lessonId, Integer positionSeconds, LocalDateTime accessedAt) {
+            this.username = username;
+            this.lessonId = lessonId;
+            this.positionSeconds = positionSeconds;
+            this.accessedAt = accessedAt;
+        }
+
+        public Long getLessonId() {
+            return lessonId;
+        }
+
+        public Integer getPositionSeconds() {
+            return positionSeconds;
+        }
+
+        public LocalDateTime getAccessedAt() {
+            return accessedAt;
+        }
+
+        private static Heartbeat newer(Heartbeat a, Heartbeat b) {
+            return b.accessedAt.isAfter(a.accessedAt) ? b : a;
+        }
+    }
+
+    public EnrollmentHeartbeatBuffer(@Value("${enrollment.heartbeat.flush-threshold:1000}") int flushThreshold) {
+        this.flushThreshold = flushThreshold;
+    }
+
+    public void record(Long enrollmentId, String username, Long lessonId, Integer positionSeconds) {
+        pending.merge(enrollmentId, new Heartbeat(username, lessonId, positionSeconds, LocalDateTime.now()), Heartbeat::newer);
+        // Past the threshold the request that notices it flushes, unless a flush is already running
+        if (pending.size() >= flushThreshold && flushLock.tryLock()) {
+            try {
+                drain();
+            } finally {
+                flushLock.unlock();
+            }
+        }
+    }
+
+    // Not-yet-flushed heartbeat of the owner's enrollment, so reads can show the latest position
+    public Heartbeat pending(Long enrollmentId, String ownerUsername) {
+        Heartbeat heartbeat = pending.get(enrollmentId);
+        return heartbeat != null && heartbeat.username.equals(ownerUsername) ? heartbeat : null;
+    }
+
+    @Scheduled(fixedDelayString = "${enrollment.heartbeat.flush-ms:5000}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            drain();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+        logger.info("Flushed enrollment heartbeats on shutdown");
+    }
+
+    private void drain() {
+        List<Long> enrollmentIds = new ArrayList<>(pending.keySet());
+        for (int from = 0; from < enrollmentIds.size(); from += BATCH_SIZE) {
+            List<Long> ids = enrollmentIds.subList(from, Math.min(from + BATCH_SIZE, enrollmentIds.size()));
+            List<Long> batchIds = new ArrayList<>(ids.size());
+            List<Heartbeat> batch = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                // Heartbeats arriving after the removal land in the next flush
+                Heartbeat heartbeat = pending.remove(id);
+                if (heartbeat != null) {
+                    batchIds.add(id);
+                    batch.add(heartbeat);
+                }
+            }
+            writeBatch(batchIds, batch);
+        }
+    }
+
+    private void writeBatch(List<Long> ids, List<Heartbeat> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<Object[]> args = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            Heartbeat heartbeat = batch.get(i);
+            Timestamp accessedAt = Timestamp.valueOf(heartbeat.accessedAt);
+            args.add(new Object[]{accessedAt, heartbeat.lessonId, heartbeat.positionSeconds, ids.get(i), heartbeat.username, accessedAt});
+        }
+        try {
+            jdbcTemplate.batchUpdate(FLUSH_SQL, args);
+        } catch (RuntimeException e) {
+            // Put the batch back without overwriting anything newer; the next flush retries it
+            for (int i = 0; i < batch.size(); i++) {
+                pending.merge(ids.get(i), batch.get(i), Heartbeat::newer);
+            }
+            logger.warn("Failed to flush {} enrollment heartbeats, will retry", batch.size(), e);
+        }
+    }
+}
@@ -1,19 +1,23 @@
 package project.service;
 
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import project.dto.EnrollmentDTO;
+import project.exception.AccessDeniedException;
 import project.exception.ResourceNotFoundException;
 import project.models.Course;
 import project.models.Enrollment;
 import project.models.EnrollmentStatus;
-import project.models.Lesson;
-import project.models.LessonProgress;
 import project.models.UserEntity;
 import project.repository.CourseRepository;
 import project.repository.EnrollmentRepository;
-import project.repository.LessonProgressRepository;
+import project.repository.LessonRepository;
 import project.repository.UserRepository;
+import project.repository.projection.EnrollmentOwnerView;
+import project.utils.BoundedCache;
 
 import javax.transaction.Transactional;
 import java.time.LocalDateTime;
@@ -26,6 +30,9 @@ public class EnrollmentService {
     @Autowired
     private EnrollmentRepository enrollmentRepository;
 
+    @Autowired
+    private LessonRepository lessonRepository;
+
     @Autowired
     private UserRepository userRepository;
 
@@ -33,7 +40,31 @@ public class EnrollmentService {
     private CourseRepository courseRepository;
 
     @Autowired
-    private LessonProgressRepository lessonProgressRepository;
+    private CourseCache courseCache;
+
+    @Autowired
+    private UserRelationCache userRelationCache;
+
+    @Autowired
+    private TrendingCourseTracker trendingCourseTracker;
+
+    @Autowired
+    private InstructorStatsService instructorStatsService;
+
+    @Autowired
+    private EnrollmentHeartbeatBuffer heartbeatBuffer;
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    private final BoundedCache<Long, EnrollmentOwnerView> enrollmentOwners;
+    private final BoundedCache<Long, Long> lessonCourses;
+
+    public EnrollmentService(@Value("${enrollment.heartbeat.lookup-cache.max-size:50000}") int lookupCacheSize,
+                             @Value("${enrollment.heartbeat.lookup-cache.ttl-seconds:900}") long lookupCacheTtlSeconds) {
+        this.enrollmentOwners = new BoundedCache<>("heartbeatEnrollmentOwners", lookupCacheSize, lookupCacheTtlSeconds);
+        this.lessonCourses = new BoundedCache<>("heartbeatLessonCourses", lookupCacheSize, lookupCacheTtlSeconds);
+    }
 
     @Transactional
     public EnrollmentDTO enrollStudentInCourse(Long userId, Long courseId) {
@@ -43,12 +74,7 @@ public class EnrollmentService {
         Course course = courseRepository.findById(courseId)
                 .orElseThrow(() -> new ResourceNotFoundException("Course not found"));
 
-        // Check if the student is already enrolled in the course
-        if (enrollmentRepository.findByStudentAndCourse(student, course).isPresent()) {
-            throw new IllegalStateException("Student is already enrolled in this course");
-        }
-
-        // Create and save the Enrollment
+        // Create and save the Enrollment; uk_enrollment_user_course rejects duplicates
         Enrollment enrollment = new Enrollment();
         enrollment.setStudent(student);
         enrollment.setCourse(course);
@@ -56,22 +82,26 @@ public class EnrollmentService {
         enrollment.setProgressPercentage(0);
         enrollment.setEnrollmentDate(LocalDateTime.now());
         enrollment.setLastAccessedDate(LocalDateTime.now());
-        enrollment = enrollmentRepository.save(enrollment);
-
-        // Initialize LessonProgress for each lesson in the course
-        for (Lesson lesson : course.getLessons()) {
-            LessonProgress lessonProgress = new LessonProgress();
-            lessonProgress.setEnrollment(enrollment);
-            lessonProgress.setLesson(lesson);
-            lessonProgress.setStatus(LessonProgress.LessonStatus.PENDING);
-            lessonProgressRepository.save(lessonProgress);
+        // Every lesson starts pending: an empty bitset, no per-lesson rows
+        enrollment.setCompletedLessons(new byte[0]);
+        try {
+            enrollment = enrollmentRepository.saveAndFlush(enrollment);
+        } catch (DataIntegrityViolationException e) {
+            if (violates(e, EnrollmentUniquenessMigration.CONSTRAINT_NAME)) {
+                throw new IllegalStateException("Student is already enrolled in this course");
+            }
+            throw e;
         }
 
         // Increment the total students count
-        course.setTotalStudents(course.getTotalStudents() + 1);
-        courseRepository.save(course);
-
-        return convertToDTO(enrollment);
+        courseRepository.applyStudentDelta(course.getId(), 1);
+        evictCourse(course);
+        userRelationCache.enrolled(student.getUsername(), course.getId());
+        dashboardService.evict(student.getUsername());
+        trendingCourseTracker.recordEnrollment(course.getId());
+        instructorStatsService.studentsChanged(course, 1);
+
+        return convertToDTO(enrollment, student.getUsername());
     }
 
     @Transactional
@@ -82,17 +112,17 @@ public class EnrollmentService {
         Course course = courseRepository.findById(courseId)
                 .orElseThrow(() -> new ResourceNotFoundException("Course not found"));
 
-        // Find the enrollment
-        Enrollment enrollment = enrollmentRepository.findByStudentAndCourse(student, course)
-                .orElseThrow(() -> new ResourceNotFoundException("Enrollment not found"));
-
-        // Delete the enrollment
-        enrollmentRepository.delete(enrollment);
+        // Delete the enrollment; of two concurrent unenrollments only one deletes the row
+        if (enrollmentRepository.deleteByStudentIdAndCourseId(student.getId(), course.getId()) == 0) {
+            throw new ResourceNotFoundException("Enrollment not found");
+        }
 
         // Decrement the total students count
-        int currentStudents = course.getTotalStudents();
-        course.setTotalStudents(Math.max(0, currentStudents - 1)); // Ensure it doesn't go below 0
-        courseRepository.save(course);
+        courseRepository.applyStudentDelta(course.getId(), -1);
+        evictCourse(course);
+        userRelationCache.unenrolled(student.getUsername(), course.getId());
+        dashboardService.evict(student.getUsername());
+        instructorStatsService.studentsChanged(course, -1);
     }
 
     public List<EnrollmentDTO> getEnrolledCourses(Long userId) {
@@ -101,7 +131,7 @@ public class EnrollmentService {
 
         return enrollmentRepository.findByStudent(student)
                 .stream()
-                .map(this::convertToDTO)
+                .map(enrollment -> convertToDTO(enrollment, student.getUsername()))
                 .collect(Collectors.toList());
     }
 
@@ -122,9 +152,45 @@ public class EnrollmentService {
         }
 
         enrollmentRepository.save(enrollment);
+        dashboardService.evict(enrollment.getStudent().getUsername());
+    }
+
+    // Buffered and written behind. Owner and course of the enrollment and the course of the lesson never
+    // change, so they are checked against caches and the request path only queries on a miss.
+    public void recordHeartbeat(Long enrollmentId, String username, Long lessonId, Integer positionSeconds) {
+        EnrollmentOwnerView owner = enrollmentOwners.get(enrollmentId, id -> enrollmentRepository.findOwnerById(id).orElse(null));
+        if (owner == null || !owner.getUsername().equals(username)) {
+            throw new AccessDeniedException("You can only record progress of your own enrollments");
+        }
+        Long lessonCourseId = lessonCourses.get(lessonId, id -> lessonRepository.findCourseIdById(id).orElse(null));
+        if (!owner.getCourseId().equals(lessonCourseId)) {
+            throw new IllegalArgumentException("Lesson does not belong to the enrolled course");
+        }
+        heartbeatBuffer.record(enrollmentId, username, lessonId, positionSeconds);
     }
 
-    private EnrollmentDTO convertToDTO(Enrollment enrollment) {
+    // Cached enrollment owners are keyed by enrollment id, and renames are rare enough to drop them all
+    public void onUserRenamed() {
+        enrollmentOwners.invalidateAll();
+    }
+
+    private void evictCourse(Course course) {
+        courseCache.evictCourse(course.getId(), course.getInstructor() != null ? course.getInstructor().getId() : null);
+    }
+
+    // MySQL reports the key as <table>.<name> or <name>, depending on the version
+    private static boolean violates(DataIntegrityViolationException e, String constraintName) {
+        if (e.getCause() instanceof ConstraintViolationException) {
+            String violated = ((ConstraintViolationException) e.getCause()).getConstraintName();
+            if (violated != null) {
+                return violated.equalsIgnoreCase(constraintName) || violated.toLowerCase().endsWith("." + constraintName);
+            }
+        }
+        String message = e.getMostSpecificCause().getMessage();
+        return message != null && message.toLowerCase().contains(constraintName);
+    }
+
+    private EnrollmentDTO convertToDTO(Enrollment enrollment, String ownerUsername) {
         EnrollmentDTO dto = new EnrollmentDTO();
         dto.setId(enrollment.getId());
         dto.setCourseId(enrollment.getCourse().getId());
@@ -134,6 +200,15 @@ public class EnrollmentService {
         dto.setProgressPercentage(enrollment.getProgressPercentage());
         dto.setEnrollmentDate(enrollment.getEnrollmentDate());
         dto.setLastAccessedDate(enrollment.getLastAccessedDate());
+        dto.setLastLessonId(enrollment.getLastLessonId());
+        dto.setLastPositionSeconds(enrollment.getLastPositionSeconds());
+
+        EnrollmentHeartbeatBuffer.Heartbeat pending = heartbeatBuffer.pending(enrollment.getId(), ownerUsername);
+        if (pending != null && (enrollment.getLastAccessedDate() == null || pending.getAccessedAt().isAfter(enrollment.getLastAccessedDate()))) {
+            dto.setLastAccessedDate(pending.getAccessedAt());
+            dto.setLastLessonId(pending.getLessonId());
+            dto.setLastPositionSeconds(pending.getPositionSeconds());
+        }
         return dto;
     }
 }
@@ -0,0 +1,75 @@
+package project.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.util.List;
+import java.util.Map;
+
+// Makes sure uk_enrollment_user_course exists before the application serves requests. Enrollment
+// relies on it to reject duplicates, but ddl-auto=update cannot add it to a table that already holds
+// duplicate rows and only logs the failure. Duplicates are merged into the row with the most progress,
+// course student counts are recounted once, the constraint is added, and startup fails if it cannot be.
+@Component
+public class EnrollmentUniquenessMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(EnrollmentUniquenessMigration.class);
+
+    static final String CONSTRAINT_NAME = "uk_enrollment_user_course";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void ensureUniqueEnrollments() {
+        if (constraintExists()) {
+            return;
+        }
+        Integer removed = transactionTemplate.execute(status -> removeDuplicates());
+        if (removed != null && removed > 0) {
+            jdbcTemplate.update("UPDATE courses c SET c.total_students = " +
+                    "(SELECT COUNT(*) FROM enrollments e WHERE e.course_id = c.id)");
+            logger.warn("Removed {} duplicate enrollments and recounted course students", removed);
+        }
+        try {
+            jdbcTemplate.execute("ALTER TABLE enrollments ADD CONSTRAINT " + CONSTRAINT_NAME + " UNIQUE (user_id, course_id)");
+        } catch (DataAccessException e) {
+            throw new IllegalStateException("Could not add " + CONSTRAINT_NAME + " to enrollments", e);
+        }
+        logger.info("Added {} to enrollments", CONSTRAINT_NAME);
+    }
+
+    private boolean constraintExists() {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM information_schema.table_constraints " +
+                "WHERE table_schema = DATABASE() AND table_name = 'enrollments' AND constraint_name = ?",
+                Integer.class, CONSTRAINT_NAME);
+        return count != null && count > 0;
+    }
+
+    private int removeDuplicates() {
+        List<Map<String, Object>> groups = jdbcTemplate.queryForList("SELECT user_id, course_id FROM enrollments " +
+                "GROUP BY user_id, course_id HAVING COUNT(*) > 1");
+        int removed = 0;
+        for (Map<String, Object> group : groups) {
+            List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM enrollments WHERE user_id = ? AND course_id = ? " +
+                            "ORDER BY completed_lessons_count DESC, progress_percentage DESC, id",
+                    Long.class, group.get("user_id"), group.get("course_id"));
+            Long kept = ids.get(0);
+            for (Long duplicate : ids.subList(1, ids.size())) {
+                // Legacy per-lesson rows move to the kept enrollment and are folded into it at startup
+                jdbcTemplate.update("UPDATE lesson_progress SET enrollment_id = ? WHERE enrollment_id = ?", kept, duplicate);
+                removed += jdbcTemplate.update("DELETE FROM enrollments WHERE id = ?", duplicate);
+            }
+        }
+        return removed;
+    }
+}
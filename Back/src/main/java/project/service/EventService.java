@@ -30,9 +30,6 @@ import javax.validation.Valid;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.PrintWriter;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
@@ -46,6 +43,9 @@ public class EventService {
     @Autowired
     private EventRepository eventRepository;
 
+    @Autowired
+    private ImagePipeline imagePipeline;
+
     @Autowired
     private EventRegistrationRepository eventRegistrationRepository;
 
@@ -75,7 +75,7 @@ public class EventService {
     private final Map<String, LocalDateTime> recentCheckIns = new ConcurrentHashMap<>();
     private static final long CHECK_IN_COOLDOWN_SECONDS = 30;
 
-    private static final String UPLOAD_DIR = "uploads/event-images/";
+    private static final String IMAGE_NAMESPACE = "event-images";
 
     @Transactional
     public EventDTO createEvent(@Valid EventDTO eventDTO, Long adminId) {
@@ -573,28 +573,16 @@ public class EventService {
 
     public Map<String, String> uploadEventImage(MultipartFile file) {
         try {
-            Path uploadPath = Paths.get(UPLOAD_DIR);
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
-            }
-
-            String originalFilename = file.getOriginalFilename();
-            String fileExtension = originalFilename != null && originalFilename.contains(".")
-                    ? originalFilename.substring(originalFilename.lastIndexOf("."))
-                    : ".jpg";
-            String uniqueFilename = UUID.randomUUID().toString() + fileExtension;
-
-            Path filePath = uploadPath.resolve(uniqueFilename);
-            Files.write(filePath, file.getBytes());
-            logger.info("Event image uploaded successfully: {}", uniqueFilename);
-
-            // Store and return the relative path for both database and frontend
-            String relativePath = "/" + UPLOAD_DIR + uniqueFilename;
+            // Event images are never deleted individually, so identical uploads can share one blob
+            String relativePath = imagePipeline.storeDeduplicated(IMAGE_NAMESPACE, file);
+            logger.info("Event image uploaded successfully: {}", relativePath);
 
             Map<String, String> response = new HashMap<>();
             response.put("url", relativePath); // Relative path for frontend to construct full URL
             response.put("relativePath", relativePath); // Relative path for database
             return response;
+        } catch (IllegalArgumentException e) {
+            throw new EventServiceException(HttpStatus.BAD_REQUEST, e.getMessage());
         } catch (IOException e) {
             logger.error("Failed to upload event image: {}", e.getMessage());
             throw new EventServiceException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to upload event image: " + e.getMessage());
@@ -23,6 +23,12 @@ public class FollowService {
     @Autowired
     private NotificationService notificationService; // Inject NotificationService
 
+    @Autowired
+    private UserRelationCache userRelationCache;
+
+    @Autowired
+    private InstructorStatsService instructorStatsService;
+
     @Transactional(rollbackOn = Exception.class)
     public void followInstructor(Long userId, Long instructorId) {
         UserEntity user = userRepository.findById(userId)
@@ -30,13 +36,14 @@ public class FollowService {
         Instructor instructor = instructorRepository.findById(instructorId)
                 .orElseThrow(() -> new IllegalStateException("Instructor not found: " + instructorId));
 
-        if (!instructor.getFollowers().contains(user)) {
-            // Add the user to the instructor's followers
-            instructor.getFollowers().add(user);
+        if (!instructorRepository.isFollowedBy(instructorId, userId)) {
+            // The user side owns the join table; touching instructor.getFollowers() would load every follower
             user.getFollowedInstructors().add(instructor);
 
             // Save the follow relationship first
-            instructorRepository.save(instructor);
+            userRepository.save(user);
+            userRelationCache.followed(user.getUsername(), instructorId);
+            instructorStatsService.followerAdded(instructorId);
 
             // Ensure the instructor has an associated user
             UserEntity instructorUser = instructor.getUser();
@@ -64,10 +71,12 @@ public class FollowService {
                 .orElseThrow(() -> new IllegalStateException("User not found: " + userId));
         Instructor instructor = instructorRepository.findById(instructorId)
                 .orElseThrow(() -> new IllegalStateException("Instructor not found: " + instructorId));
-        if (instructor.getFollowers().contains(user)) {
-            instructor.getFollowers().remove(user);
+        if (instructorRepository.isFollowedBy(instructorId, userId)) {
+            // The user side owns the join table; touching instructor.getFollowers() would load every follower
             user.getFollowedInstructors().remove(instructor);
             instructorRepository.save(instructor);
+            userRelationCache.unfollowed(user.getUsername(), instructorId);
+            instructorStatsService.followerRemoved(instructorId);
         }
     }
 
@@ -83,11 +92,14 @@ public class FollowService {
         return user.getFollowedInstructors();
     }
 
+    // Index lookup on user_instructor_follow instead of loading the whole follower list
     public boolean isFollowing(Long userId, Long instructorId) {
-        Instructor instructor = instructorRepository.findById(instructorId)
-                .orElseThrow(() -> new IllegalStateException("Instructor not found: " + instructorId));
-        UserEntity user = userRepository.findById(userId)
-                .orElseThrow(() -> new IllegalStateException("User not found: " + userId));
-        return instructor.getFollowers().contains(user);
+        if (!instructorRepository.existsById(instructorId)) {
+            throw new IllegalStateException("Instructor not found: " + instructorId);
+        }
+        if (!userRepository.existsById(userId)) {
+            throw new IllegalStateException("User not found: " + userId);
+        }
+        return instructorRepository.isFollowedBy(instructorId, userId);
     }
 }
\ No newline at end of file
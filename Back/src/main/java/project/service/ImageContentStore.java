@@ -0,0 +1,142 @@
+package project.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.models.BlobReference;
+import project.repository.BlobReferenceRepository;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+
+// Content-addressed image storage with reference counting. Identical bytes are stored once under
+// their SHA-256 and every row using them holds a reference; a blob is deleted only after it has
+// been unreferenced for a grace period, so a concurrent upload of the same content can revive it.
+@Service
+public class ImageContentStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageContentStore.class);
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @Autowired
+    private BlobReferenceRepository blobReferenceRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${blob.references.grace-minutes:60}")
+    private long graceMinutes;
+
+    public static class StoredContent {
+        private final String storageKey;
+        private final String contentHash;
+
+        StoredContent(String storageKey, String contentHash) {
+            this.storageKey = storageKey;
+            this.contentHash = contentHash;
+        }
+
+        public String getStorageKey() {
+            return storageKey;
+        }
+
+        public String getContentHash() {
+            return contentHash;
+        }
+    }
+
+    // Stores the bytes unless identical ones already are, and takes a reference on them
+    public StoredContent store(String namespace, String extension, byte[] content) throws IOException {
+        String contentHash = HexFormat.of().formatHex(sha256().digest(content));
+        String storageKey = blobStore.putDeduplicated(namespace, extension, new ByteArrayInputStream(content));
+        acquire(storageKey, contentHash);
+        // The collector may have removed an unreferenced copy between the write and the reference
+        if (!blobStore.exists(storageKey)) {
+            blobStore.putDeduplicated(namespace, extension, new ByteArrayInputStream(content));
+        }
+        return new StoredContent(storageKey, contentHash);
+    }
+
+    // Takes another reference on content stored earlier without touching its bytes; false if it is gone
+    public boolean addReference(StoredContent content) {
+        Integer updated = transactionTemplate.execute(status ->
+                blobReferenceRepository.increment(content.getStorageKey(), LocalDateTime.now()));
+        if (updated == null || updated == 0) {
+            return false;
+        }
+        if (!blobStore.exists(content.getStorageKey())) {
+            release(content.getStorageKey());
+            return false;
+        }
+        return true;
+    }
+
+    public void release(String storageKey) {
+        if (storageKey != null) {
+            transactionTemplate.executeWithoutResult(status ->
+                    blobReferenceRepository.decrement(storageKey, LocalDateTime.now()));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${blob.references.collect-interval-ms:3600000}")
+    public void collectUnreferenced() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(graceMinutes);
+        int deleted = 0;
+        for (String storageKey : blobReferenceRepository.findUnreferencedBefore(cutoff)) {
+            Boolean removed = transactionTemplate.execute(status -> {
+                // Re-checked under the row lock: a new reference taken meanwhile keeps the blob
+                BlobReference reference = blobReferenceRepository.findByIdForUpdate(storageKey).orElse(null);
+                if (reference == null || reference.getRefCount() > 0 || !reference.getUpdatedAt().isBefore(cutoff)) {
+                    return false;
+                }
+                blobReferenceRepository.delete(reference);
+                blobStore.purge(storageKey);
+                return true;
+            });
+            if (Boolean.TRUE.equals(removed)) {
+                deleted++;
+            }
+        }
+        if (deleted > 0) {
+            logger.info("Deleted {} unreferenced blobs", deleted);
+        }
+    }
+
+    private void acquire(String storageKey, String contentHash) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (blobReferenceRepository.increment(storageKey, LocalDateTime.now()) == 0) {
+                    BlobReference reference = new BlobReference();
+                    reference.setStorageKey(storageKey);
+                    reference.setContentHash(contentHash);
+                    reference.setRefCount(1);
+                    reference.setUpdatedAt(LocalDateTime.now());
+                    blobReferenceRepository.saveAndFlush(reference);
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Another upload of the same content created the row first
+            transactionTemplate.executeWithoutResult(status ->
+                    blobReferenceRepository.increment(storageKey, LocalDateTime.now()));
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package project.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Decodes uploaded images with a predictable heap cost. The dimensions are read from the header
+// first and images over the pixel budget are rejected before any pixel data is read; the rest are
+// subsampled while decoding so the raster is at most about twice the requested width and never holds
+// more than max-decoded-pixels whatever the aspect ratio, and only a fixed number of decodes run at once.
+@Component
+public class ImageDecoder {
+
+    private final long maxPixels;
+    private final long maxDecodedPixels;
+    private final long acquireTimeoutMillis;
+    private final Semaphore permits;
+    private final LongAdder rejected = new LongAdder();
+
+    public ImageDecoder(@Value("${image.decode.max-pixels:50000000}") long maxPixels,
+                        @Value("${image.decode.max-decoded-pixels:8000000}") long maxDecodedPixels,
+                        @Value("${image.decode.max-concurrent:2}") int maxConcurrent,
+                        @Value("${image.decode.acquire-timeout-ms:30000}") long acquireTimeoutMillis) {
+        this.maxPixels = maxPixels;
+        this.maxDecodedPixels = Math.max(1, maxDecodedPixels);
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.permits = new Semaphore(maxConcurrent, true);
+    }
+
+    public BufferedImage decode(InputStream in, int targetWidth) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+            if (readers == null || !readers.hasNext()) {
+                throw new IllegalArgumentException("Unsupported image file");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if (width <= 0 || height <= 0 || (long) width * height > maxPixels) {
+                    rejected.increment();
+                    throw new IllegalArgumentException("Image is too large: " + width + "x" + height
+                            + " exceeds the limit of " + maxPixels + " pixels");
+                }
+
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = subsampling(width, height, targetWidth);
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                acquire();
+                try {
+                    return reader.read(0, param);
+                } finally {
+                    permits.release();
+                }
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Enough to bring the width down to about the target, and the decoded area under maxDecodedPixels
+    int subsampling(int width, int height, int targetWidth) {
+        int subsampling = Math.max(1, width / Math.max(1, targetWidth));
+        subsampling = Math.max(subsampling, (int) Math.ceil(Math.sqrt((double) width * height / maxDecodedPixels)));
+        while (decodedPixels(width, subsampling) * decodedPixels(height, subsampling) > maxDecodedPixels) {
+            subsampling++;
+        }
+        return subsampling;
+    }
+
+    private static long decodedPixels(int size, int subsampling) {
+        return (size + subsampling - 1) / subsampling;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("maxPixels", maxPixels);
+        stats.put("maxDecodedPixels", maxDecodedPixels);
+        stats.put("availableDecodePermits", permits.availablePermits());
+        stats.put("queuedDecodes", permits.getQueueLength());
+        stats.put("rejectedOversize", rejected.sum());
+        return stats;
+    }
+
+    private void acquire() throws IOException {
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("Too many images are being processed, please try again");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting to decode an image", e);
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package project.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import project.repository.CourseCategoryRepository;
+import project.repository.CourseRepository;
+import project.repository.EventRepository;
+import project.utils.ImageFiles;
+import project.utils.ImageFormat;
+import project.utils.ImageRendition;
+
+import javax.annotation.PreDestroy;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Upload pipeline for course, category and event images. The upload is decoded once, the original is
+// stored, and every ImageRendition is resized, encoded and stored next to it on a bounded worker pool,
+// so cards download a 320 px thumbnail rather than the original. Time spent per stage is recorded.
+@Service
+public class ImagePipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImagePipeline.class);
+
+    public enum Stage { DECODE, RESIZE, ENCODE, STORE }
+
+    // Re-encoded originals are capped at this width; renditions never need more than the largest one
+    private static final int ORIGINAL_MAX_WIDTH = 2560;
+    private static final int RENDITION_MAX_WIDTH = ImageRendition.HERO.getMaxWidth();
+
+    @FunctionalInterface
+    private interface StageTask<T> {
+        T run() throws IOException;
+    }
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @Autowired
+    private ImageDecoder imageDecoder;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private CourseCategoryRepository courseCategoryRepository;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    private final ThreadPoolExecutor workers;
+    private final Map<Stage, LongAdder> stageNanos = new EnumMap<>(Stage.class);
+    private final Map<Stage, LongAdder> stageCounts = new EnumMap<>(Stage.class);
+    private final LongAdder imagesRendered = new LongAdder();
+
+    public ImagePipeline(@Value("${image.pipeline.threads:2}") int threads,
+                         @Value("${image.pipeline.queue-capacity:32}") int queueCapacity) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        // When the queue is full the uploading request thread renders the image itself
+        this.workers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-pipeline-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        for (Stage stage : Stage.values()) {
+            stageNanos.put(stage, new LongAdder());
+            stageCounts.put(stage, new LongAdder());
+        }
+    }
+
+    // Re-encodes the original at quality 0.7 (at most ORIGINAL_MAX_WIDTH wide) and stores it with its renditions;
+    // returns the original's URL
+    public String store(String namespace, MultipartFile image) throws IOException {
+        if (image.isEmpty()) {
+            throw new IllegalArgumentException("Image file is empty");
+        }
+        long started = System.nanoTime();
+        String extension;
+        try (InputStream in = image.getInputStream()) {
+            extension = extensionOf(ImageFormat.detect(in));
+        }
+        BufferedImage source;
+        try (InputStream in = image.getInputStream()) {
+            source = decode(in, ORIGINAL_MAX_WIDTH);
+        }
+        boolean opaque = ".jpg".equals(ImageRendition.extensionFor(extension));
+        BufferedImage capped = source.getWidth() > ORIGINAL_MAX_WIDTH
+                ? timed(Stage.RESIZE, () -> ImageFiles.scaleToWidth(source, ORIGINAL_MAX_WIDTH, opaque))
+                : source;
+        byte[] original = encode(capped, extension.substring(1));
+        String url = timed(Stage.STORE, () -> blobStore.write(namespace, extension, out -> out.write(original)));
+        try {
+            renderAll(source, url, EnumSet.allOf(ImageRendition.class));
+        } catch (IOException | RuntimeException e) {
+            delete(url);
+            throw e;
+        }
+        logger.debug("Stored image {} with renditions in {} ms", url, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        return url;
+    }
+
+    // Keeps the uploaded bytes as they are, content-addressed; renditions already made for the same content are reused
+    public String storeDeduplicated(String namespace, MultipartFile image) throws IOException {
+        if (image.isEmpty()) {
+            throw new IllegalArgumentException("Image file is empty");
+        }
+        long started = System.nanoTime();
+        byte[] bytes = image.getBytes();
+        String extension = extensionOf(ImageFormat.detect(bytes));
+        BufferedImage source = decode(new ByteArrayInputStream(bytes), RENDITION_MAX_WIDTH);
+        String url = timed(Stage.STORE, () -> blobStore.putDeduplicated(namespace, extension, new ByteArrayInputStream(bytes)));
+        Set<ImageRendition> missing = missingRenditions(url);
+        if (!missing.isEmpty()) {
+            renderAll(source, url, missing);
+        }
+        logger.debug("Stored image {} with renditions in {} ms", url, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        return url;
+    }
+
+    public void delete(String url) {
+        if (url == null) {
+            return;
+        }
+        blobStore.delete(url);
+        for (ImageRendition rendition : ImageRendition.values()) {
+            blobStore.delete(rendition.urlOf(url));
+        }
+    }
+
+    // Gives images uploaded before renditions existed their thumb, card and hero versions
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillRenditions() {
+        long start = System.currentTimeMillis();
+        Set<String> urls = new LinkedHashSet<>(courseRepository.findImageUrls());
+        urls.addAll(courseCategoryRepository.findImageUrls());
+        urls.addAll(eventRepository.findImageUrls());
+
+        int rendered = 0;
+        for (String url : urls) {
+            if (ImageRendition.urlsFor(url) == null || !blobStore.exists(url)) {
+                continue;
+            }
+            Set<ImageRendition> missing = missingRenditions(url);
+            if (missing.isEmpty()) {
+                continue;
+            }
+            try (InputStream in = blobStore.open(url)) {
+                renderAll(decode(in, RENDITION_MAX_WIDTH), url, missing);
+                rendered++;
+            } catch (IOException | IllegalArgumentException e) {
+                logger.warn("Could not create renditions for {}: {}", url, e.getMessage());
+            }
+        }
+        if (rendered > 0) {
+            logger.info("Created renditions for {} images in {} ms", rendered, System.currentTimeMillis() - start);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("name", "imagePipeline");
+        stats.put("imagesRendered", imagesRendered.sum());
+        for (Stage stage : Stage.values()) {
+            long count = stageCounts.get(stage).sum();
+            long totalMillis = TimeUnit.NANOSECONDS.toMillis(stageNanos.get(stage).sum());
+            Map<String, Object> stageStats = new LinkedHashMap<>();
+            stageStats.put("count", count);
+            stageStats.put("totalMs", totalMillis);
+            stageStats.put("avgMs", count == 0 ? 0.0 : (double) totalMillis / count);
+            stats.put(stage.name().toLowerCase(), stageStats);
+        }
+        stats.put("activeWorkers", workers.getActiveCount());
+        stats.put("queued", workers.getQueue().size());
+        stats.put("decoder", imageDecoder.stats());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+
+    // Renditions are independent, so each is resized, encoded and stored by its own worker task
+    private void renderAll(BufferedImage source, String url, Set<ImageRendition> renditions) throws IOException {
+        List<Future<Void>> futures = new ArrayList<>(renditions.size());
+        for (ImageRendition rendition : renditions) {
+            futures.add(workers.submit(() -> {
+                render(source, url, rendition);
+                return null;
+            }));
+        }
+        try {
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futures.forEach(future -> future.cancel(true));
+            throw new IOException("Interrupted while creating renditions of " + url, e);
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Could not create renditions of " + url, e.getCause());
+        }
+        imagesRendered.increment();
+    }
+
+    private void render(BufferedImage source, String url, ImageRendition rendition) throws IOException {
+        String extension = ImageRendition.extensionFor(url);
+        BufferedImage scaled = timed(Stage.RESIZE,
+                () -> ImageFiles.scaleToWidth(source, rendition.getMaxWidth(), ".jpg".equals(extension)));
+        byte[] encoded = encode(scaled, extension.substring(1));
+        timed(Stage.STORE, () -> {
+            blobStore.writeAt(rendition.urlOf(url), out -> out.write(encoded));
+            return null;
+        });
+    }
+
+    // The stored extension follows the sniffed content, never the client's file name
+    private static String extensionOf(Optional<ImageFormat> format) {
+        return format.map(ImageFormat::getExtension)
+                .orElseThrow(() -> new IllegalArgumentException("Unsupported image type. Allowed formats: JPEG, PNG, GIF"));
+    }
+
+    private Set<ImageRendition> missingRenditions(String url) {
+        Set<ImageRendition> missing = EnumSet.noneOf(ImageRendition.class);
+        for (ImageRendition rendition : ImageRendition.values()) {
+            if (!blobStore.exists(rendition.urlOf(url))) {
+                missing.add(rendition);
+            }
+        }
+        return missing;
+    }
+
+    private BufferedImage decode(InputStream in, int targetWidth) throws IOException {
+        return timed(Stage.DECODE, () -> imageDecoder.decode(in, targetWidth));
+    }
+
+    private byte[] encode(BufferedImage image, String format) throws IOException {
+        return timed(Stage.ENCODE, () -> {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ImageFiles.writeCompressed(image, format, out);
+            return out.toByteArray();
+        });
+    }
+
+    private <T> T timed(Stage stage, StageTask<T> task) throws IOException {
+        long start = System.nanoTime();
+        try {
+            return task.run();
+        } finally {
+            stageNanos.get(stage).add(System.nanoTime() - start);
+            stageCounts.get(stage).increment();
+        }
+    }
+}
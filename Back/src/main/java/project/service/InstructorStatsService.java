@@ -0,0 +1,126 @@
+package project.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import project.models.Course;
+import project.models.InstructorStats;
+import project.repository.InstructorRepository;
+import project.repository.InstructorStatsRepository;
+
+import javax.transaction.Transactional;
+import java.util.List;
+
+// Maintains the instructor_stats read model. Writers apply deltas in their own transaction with a
+// single UPDATE. A missing row is built from the source tables by whichever comes first, a read or a
+// delta, with one INSERT IGNORE ... SELECT, so concurrent first reads cannot collide on the primary key
+// and a delta is never dropped. A nightly pass recomputes every row to correct any drift (e.g. follows
+// removed with a deleted user).
+@Service
+public class InstructorStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InstructorStatsService.class);
+
+    private static final int RECONCILE_BATCH_SIZE = 500;
+
+    @Autowired
+    private InstructorStatsRepository instructorStatsRepository;
+
+    @Autowired
+    private InstructorRepository instructorRepository;
+
+    public InstructorStats getStats(Long instructorId) {
+        return instructorStatsRepository.findById(instructorId).orElseGet(() -> {
+            instructorStatsRepository.insertFromSource(instructorId);
+            return instructorStatsRepository.findById(instructorId).orElseGet(() -> emptyStats(instructorId));
+        });
+    }
+
+    @Transactional
+    public void followerAdded(Long instructorId) {
+        applyDelta(instructorId, 1, 0, 0, 0, 0.0);
+    }
+
+    @Transactional
+    public void followerRemoved(Long instructorId) {
+        applyDelta(instructorId, -1, 0, 0, 0, 0.0);
+    }
+
+    @Transactional
+    public void courseAdded(Course course) {
+        applyDelta(instructorIdOf(course), 0, 1, course.getTotalStudents(), course.getTotalReviews(), ratingOf(course));
+    }
+
+    @Transactional
+    public void courseRemoved(Course course) {
+        applyDelta(instructorIdOf(course), 0, -1, -course.getTotalStudents(), -course.getTotalReviews(), -ratingOf(course));
+    }
+
+    @Transactional
+    public void studentsChanged(Course course, int delta) {
+        if (delta != 0) {
+            applyDelta(instructorIdOf(course), 0, 0, delta, 0, 0.0);
+        }
+    }
+
+    @Transactional
+    public void reviewsChanged(Course course, int reviewDelta, double ratingDelta) {
+        if (reviewDelta != 0 || ratingDelta != 0.0) {
+            applyDelta(instructorIdOf(course), 0, 0, 0, reviewDelta, ratingDelta);
+        }
+    }
+
+    @Transactional
+    public void remove(Long instructorId) {
+        if (instructorStatsRepository.existsById(instructorId)) {
+            instructorStatsRepository.deleteById(instructorId);
+        }
+    }
+
+    // Rows that do not exist yet are left to be built on first read or delta
+    @Scheduled(cron = "${instructor.stats.reconcile-cron:0 0 4 * * *}")
+    public void reconcileAll() {
+        long start = System.currentTimeMillis();
+        long lastId = 0L;
+        int reconciled = 0;
+        List<Long> batch;
+        do {
+            batch = instructorRepository.findIdsAfter(lastId, PageRequest.of(0, RECONCILE_BATCH_SIZE));
+            if (!batch.isEmpty()) {
+                instructorStatsRepository.recomputeFromSource(batch);
+                reconciled += batch.size();
+                lastId = batch.get(batch.size() - 1);
+            }
+        } while (batch.size() == RECONCILE_BATCH_SIZE);
+        logger.info("Reconciled stats for {} instructors in {} ms", reconciled, System.currentTimeMillis() - start);
+    }
+
+    // A zero-row update means the stats row does not exist yet. Building it from source in this transaction
+    // already counts this change; if another transaction built it first, the delta is applied to that row.
+    private void applyDelta(Long instructorId, int followers, int courses, int students, int reviews, double ratingSum) {
+        if (instructorId == null
+                || instructorStatsRepository.applyDelta(instructorId, followers, courses, students, reviews, ratingSum) > 0) {
+            return;
+        }
+        if (instructorStatsRepository.insertFromSource(instructorId) == 0) {
+            instructorStatsRepository.applyDelta(instructorId, followers, courses, students, reviews, ratingSum);
+        }
+    }
+
+    private static InstructorStats emptyStats(Long instructorId) {
+        InstructorStats stats = new InstructorStats();
+        stats.setInstructorId(instructorId);
+        return stats;
+    }
+
+    private static Long instructorIdOf(Course course) {
+        return course.getInstructor() != null ? course.getInstructor().getId() : null;
+    }
+
+    private static double ratingOf(Course course) {
+        return course.getRating() != null ? course.getRating() : 0.0;
+    }
+}
@@ -1,21 +1,35 @@
 package project.service;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import project.dto.LessonProgressDTO;
 import project.models.*;
+import project.repository.CourseRepository;
 import project.repository.EnrollmentRepository;
 import project.repository.LessonProgressRepository;
 import project.repository.LessonRepository;
 import project.exception.ResourceNotFoundException;
+import project.repository.projection.EnrollmentBitsView;
+import project.repository.projection.LessonCompletionView;
 
 import javax.transaction.Transactional;
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.*;
 
+// Lesson progress is a bitset per enrollment indexed by Lesson.ordinal plus a maintained completed
+// count, so completing a lesson is a bit flip and a counter update on a single row.
 @Service
 public class LessonProgressService {
 
+    private static final Logger logger = LoggerFactory.getLogger(LessonProgressService.class);
+
+    private static final int MIGRATION_BATCH_SIZE = 200;
+
     @Autowired
     private LessonProgressRepository lessonProgressRepository;
 
@@ -25,13 +39,19 @@ public class LessonProgressService {
     @Autowired
     private LessonRepository lessonRepository;
 
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private DashboardService dashboardService;
+
     public boolean isUserEnrolledInCourse(Long userId, Long enrollmentId) {
         return enrollmentRepository.existsByIdAndStudentId(enrollmentId, userId);
     }
 
     @Transactional
     public LessonProgressDTO markLessonAsCompleted(Long enrollmentId, Long lessonId) {
-        Enrollment enrollment = enrollmentRepository.findById(enrollmentId)
+        Enrollment enrollment = enrollmentRepository.findByIdForUpdate(enrollmentId)
                 .orElseThrow(() -> new ResourceNotFoundException("Enrollment not found"));
 
         Lesson lesson = lessonRepository.findById(lessonId)
@@ -41,20 +61,21 @@ public class LessonProgressService {
             throw new IllegalArgumentException("Lesson does not belong to the enrolled course");
         }
 
-        LessonProgress lessonProgress = lessonProgressRepository
-                .findByEnrollmentAndLesson(enrollment, lesson)
-                .orElse(new LessonProgress());
-
-        lessonProgress.setEnrollment(enrollment);
-        lessonProgress.setLesson(lesson);
-        lessonProgress.setStatus(LessonProgress.LessonStatus.COMPLETED);
-        lessonProgress.setCompletedAt(LocalDateTime.now());
-
-        lessonProgress = lessonProgressRepository.save(lessonProgress);
-
-        updateCourseProgress(enrollment);
+        int ordinal = ordinalOf(lesson);
+        BitSet completed = completedLessons(enrollment);
+        boolean alreadyCompleted = completed.get(ordinal);
+        if (!alreadyCompleted) {
+            completed.set(ordinal);
+            enrollment.setCompletedLessons(completed.toByteArray());
+            enrollment.setCompletedLessonsCount(enrollment.getCompletedLessonsCount() + 1);
+            updateCourseProgress(enrollment);
+        }
+        enrollment.setLastAccessedDate(LocalDateTime.now());
+        enrollmentRepository.save(enrollment);
+        dashboardService.evict(enrollment.getStudent().getUsername());
 
-        return LessonProgressDTO.fromEntity(lessonProgress);
+        // The completion time is not stored, so a repeated completion reports none rather than now
+        return LessonProgressDTO.of(enrollment, lesson, true, alreadyCompleted ? null : LocalDateTime.now());
     }
 
     public int getCourseProgress(Long enrollmentId) {
@@ -63,20 +84,102 @@ public class LessonProgressService {
         return enrollment.getProgressPercentage();
     }
 
-    private void updateCourseProgress(Enrollment enrollment) {
-        List<LessonProgress> completedLessons = lessonProgressRepository.findByEnrollment(enrollment);
-        int totalLessons = enrollment.getCourse().getLessons().size();
-        int completedLessonsCount = (int) completedLessons.stream()
-                .filter(lp -> lp.getStatus() == LessonProgress.LessonStatus.COMPLETED)
-                .count();
+    // Saves a lesson under the next free ordinal of its course. The course row stays locked from
+    // reading the highest ordinal until the insert commits, so concurrent creations take turns.
+    @Transactional
+    public Lesson saveNewLesson(Lesson lesson) {
+        Long courseId = lesson.getCourse().getId();
+        courseRepository.findByIdForUpdate(courseId)
+                .orElseThrow(() -> new ResourceNotFoundException("Course not found with id: " + courseId));
+        if (lesson.getOrdinal() == null) {
+            lesson.setOrdinal(lessonRepository.findMaxOrdinal(courseId) + 1);
+        }
+        return lessonRepository.save(lesson);
+    }
 
-        int progressPercentage = (int) ((double) completedLessonsCount / totalLessons * 100);
+    // Deletes the lesson, clears its bit from the enrollments that completed it and recomputes the
+    // progress of every enrollment of the course against the remaining lessons
+    @Transactional
+    public void removeLesson(Lesson lesson) {
+        Long courseId = lesson.getCourse().getId();
+        Integer ordinal = lesson.getOrdinal();
+        if (ordinal != null) {
+            for (EnrollmentBitsView enrollment : enrollmentRepository.findCompletedBitsForUpdate(courseId)) {
+                BitSet completed = enrollment.getCompletedLessons() != null
+                        ? BitSet.valueOf(enrollment.getCompletedLessons()) : new BitSet();
+                if (completed.get(ordinal)) {
+                    completed.clear(ordinal);
+                    enrollmentRepository.removeCompletedLesson(enrollment.getId(), completed.toByteArray());
+                }
+            }
+        }
+        lessonRepository.delete(lesson);
+        lessonRepository.flush();
+        enrollmentRepository.recomputeProgress(courseId, lessonRepository.countByCourseId(courseId));
+    }
+
+    // Gives ordinals to lessons created before they existed, then folds the legacy lesson_progress
+    // rows into the enrollment bitsets and deletes them
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void migrateLegacyProgress() {
+        long start = System.currentTimeMillis();
+        Map<Long, Integer> nextOrdinal = new HashMap<>();
+        for (Lesson lesson : lessonRepository.findByOrdinalIsNullOrderByIdAsc()) {
+            Long courseId = lesson.getCourse().getId();
+            int ordinal = nextOrdinal.computeIfAbsent(courseId, id -> lessonRepository.findMaxOrdinal(id) + 1);
+            lesson.setOrdinal(ordinal);
+            nextOrdinal.put(courseId, ordinal + 1);
+        }
+        lessonRepository.flush();
+
+        int migrated = 0;
+        List<Long> enrollmentIds;
+        while (!(enrollmentIds = lessonProgressRepository.findEnrollmentIds(PageRequest.of(0, MIGRATION_BATCH_SIZE))).isEmpty()) {
+            Map<Long, BitSet> completedById = new HashMap<>();
+            List<LessonCompletionView> completions =
+                    lessonProgressRepository.findCompletions(enrollmentIds, LessonProgress.LessonStatus.COMPLETED);
+            for (LessonCompletionView completion : completions) {
+                if (completion.getLessonOrdinal() != null) {
+                    completedById.computeIfAbsent(completion.getEnrollmentId(), id -> new BitSet())
+                            .set(completion.getLessonOrdinal());
+                }
+            }
+            for (Enrollment enrollment : enrollmentRepository.findAllById(enrollmentIds)) {
+                BitSet completed = completedLessons(enrollment);
+                completed.or(completedById.getOrDefault(enrollment.getId(), new BitSet()));
+                enrollment.setCompletedLessons(completed.toByteArray());
+                enrollment.setCompletedLessonsCount(completed.cardinality());
+            }
+            enrollmentRepository.flush();
+            lessonProgressRepository.deleteByEnrollmentIds(enrollmentIds);
+            migrated += enrollmentIds.size();
+        }
+        if (!nextOrdinal.isEmpty() || migrated > 0) {
+            logger.info("Assigned ordinals to lessons of {} courses and migrated progress of {} enrollments in {} ms",
+                    nextOrdinal.size(), migrated, System.currentTimeMillis() - start);
+        }
+    }
+
+    private void updateCourseProgress(Enrollment enrollment) {
+        long totalLessons = lessonRepository.countByCourseId(enrollment.getCourse().getId());
+        int progressPercentage = totalLessons == 0 ? 0
+                : (int) Math.min(100, (double) enrollment.getCompletedLessonsCount() / totalLessons * 100);
         enrollment.setProgressPercentage(progressPercentage);
 
         if (progressPercentage == 100) {
             enrollment.setStatus(EnrollmentStatus.COMPLETED);
         }
+    }
+
+    private int ordinalOf(Lesson lesson) {
+        if (lesson.getOrdinal() == null) {
+            saveNewLesson(lesson);
+        }
+        return lesson.getOrdinal();
+    }
 
-        enrollmentRepository.save(enrollment);
+    private static BitSet completedLessons(Enrollment enrollment) {
+        return enrollment.getCompletedLessons() != null ? BitSet.valueOf(enrollment.getCompletedLessons()) : new BitSet();
     }
-}
\ No newline at end of file
+}
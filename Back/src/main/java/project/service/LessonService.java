@@ -9,13 +9,10 @@ import project.models.Lesson;
 import project.repository.CourseRepository;
 import project.repository.LessonRepository;
 import project.exception.ResourceNotFoundException;
+import project.utils.ImageFiles;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.List;
-import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,12 +24,30 @@ public class LessonService {
     @Autowired
     private CourseRepository courseRepository;
 
-    private final String UPLOAD_DIR = "uploads/videos/";
-    private final long MAX_VIDEO_SIZE = 500 * 1024 * 1024; // 500MB
-    private final String[] ALLOWED_VIDEO_TYPES = {
+    @Autowired
+    private LessonProgressService lessonProgressService;
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    static final String VIDEO_NAMESPACE = "videos";
+    static final long MAX_VIDEO_SIZE = 500 * 1024 * 1024; // 500MB
+    private static final String[] ALLOWED_VIDEO_TYPES = {
             "video/mp4", "video/mpeg", "video/quicktime", "video/x-msvideo"
     };
 
+    static boolean isAllowedVideoType(String contentType) {
+        for (String allowedType : ALLOWED_VIDEO_TYPES) {
+            if (allowedType.equals(contentType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private String uploadVideo(MultipartFile video) throws IOException {
         if (video.isEmpty()) {
             throw new IllegalArgumentException("Video file is empty");
@@ -44,46 +59,17 @@ public class LessonService {
         }
 
         // Check file type
-        String contentType = video.getContentType();
-        boolean isValidType = false;
-        for (String allowedType : ALLOWED_VIDEO_TYPES) {
-            if (allowedType.equals(contentType)) {
-                isValidType = true;
-                break;
-            }
-        }
-        if (!isValidType) {
+        if (!isAllowedVideoType(video.getContentType())) {
             throw new IllegalArgumentException("Invalid video format. Allowed formats: MP4, MPEG, MOV, AVI");
         }
 
-        // Create upload directory if it doesn't exist
-        Path uploadPath = Paths.get(UPLOAD_DIR);
-        if (!Files.exists(uploadPath)) {
-            Files.createDirectories(uploadPath);
-        }
-
-        // Generate unique filename
-        String originalFilename = video.getOriginalFilename();
-        String extension = originalFilename != null ?
-                originalFilename.substring(originalFilename.lastIndexOf(".")) : ".mp4";
-        String fileName = UUID.randomUUID().toString() + extension;
-        Path filePath = uploadPath.resolve(fileName);
-
-        // Save the file
-        Files.copy(video.getInputStream(), filePath);
-
-        return "/uploads/videos/" + fileName;
+        String extension = ImageFiles.extensionOf(video.getOriginalFilename(), ".mp4");
+        return blobStore.put(VIDEO_NAMESPACE, extension, video.getInputStream());
     }
 
     private void deleteVideo(String videoUrl) {
-        if (videoUrl != null && videoUrl.startsWith("/uploads/videos/")) {
-            try {
-                String fileName = videoUrl.substring("/uploads/videos/".length());
-                Path filePath = Paths.get(UPLOAD_DIR + fileName);
-                Files.deleteIfExists(filePath);
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
+        if (videoUrl != null) {
+            blobStore.delete(videoUrl);
         }
     }
 
@@ -105,16 +91,37 @@ public class LessonService {
         Course course = courseRepository.findById(courseId)
                 .orElseThrow(() -> new ResourceNotFoundException("Course not found with id: " + courseId));
 
+        String videoUrl = video != null ? uploadVideo(video) : null;
+        return createLesson(course, title, videoUrl);
+    }
+
+    // Final step of a resumable upload: the video is already stored under /uploads/videos/
+    public LessonDTO addLessonWithVideo(Long courseId, String title, String videoUrl) {
+        Course course = courseRepository.findById(courseId)
+                .orElseThrow(() -> new ResourceNotFoundException("Course not found with id: " + courseId));
+        return createLesson(course, title, videoUrl);
+    }
+
+    public LessonDTO replaceLessonVideo(Long courseId, Long lessonId, String videoUrl) {
+        Lesson lesson = lessonRepository.findById(lessonId)
+                .orElseThrow(() -> new ResourceNotFoundException("Lesson not found with id: " + lessonId));
+        if (!lesson.getCourse().getId().equals(courseId)) {
+            throw new ResourceNotFoundException("Lesson not found with id: " + lessonId);
+        }
+
+        deleteVideo(lesson.getVideoUrl());
+        lesson.setVideoUrl(videoUrl);
+        return LessonDTO.fromEntity(lessonRepository.save(lesson));
+    }
+
+    private LessonDTO createLesson(Course course, String title, String videoUrl) {
         Lesson lesson = new Lesson();
         lesson.setTitle(title);
         lesson.setCourse(course);
+        lesson.setVideoUrl(videoUrl);
 
-        if (video != null) {
-            String videoUrl = uploadVideo(video);
-            lesson.setVideoUrl(videoUrl);
-        }
-
-        Lesson savedLesson = lessonRepository.save(lesson);
+        Lesson savedLesson = lessonProgressService.saveNewLesson(lesson);
+        dashboardService.evictCourse(course.getId());
         return LessonDTO.fromEntity(savedLesson);
     }
 
@@ -143,6 +150,7 @@ public class LessonService {
         // Delete video file if exists
         deleteVideo(lesson.getVideoUrl());
 
-        lessonRepository.delete(lesson);
+        lessonProgressService.removeLesson(lesson);
+        dashboardService.evictCourse(lesson.getCourse().getId());
     }
 }
\ No newline at end of file
@@ -0,0 +1,94 @@
+package project.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+import project.exception.AccessDeniedException;
+import project.exception.ResourceNotFoundException;
+import project.models.Course;
+import project.models.Lesson;
+import project.repository.LessonRepository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+
+// Resolves a lesson's uploaded video for streaming once the caller is allowed to watch it:
+// students enrolled in the course, the course's instructor and admins.
+@Service
+public class LessonVideoService {
+
+    @Autowired
+    private LessonRepository lessonRepository;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @Autowired
+    private UserRelationCache userRelationCache;
+
+    public static class VideoFile {
+        private final Path path;
+        private final long length;
+        private final long lastModified;
+        private final MediaType contentType;
+
+        VideoFile(Path path, long length, long lastModified, MediaType contentType) {
+            this.path = path;
+            this.length = length;
+            this.lastModified = lastModified;
+            this.contentType = contentType;
+        }
+
+        public Path getPath() {
+            return path;
+        }
+
+        public long getLength() {
+            return length;
+        }
+
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        public MediaType getContentType() {
+            return contentType;
+        }
+
+        // Strong validator: changes whenever the file is replaced or rewritten
+        public String getETag() {
+            return "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+        }
+    }
+
+    public VideoFile resolve(Long courseId, Long lessonId, String username, boolean admin) {
+        Lesson lesson = lessonRepository.findById(lessonId)
+                .orElseThrow(() -> new ResourceNotFoundException("Lesson not found with id: " + lessonId));
+        Course course = lesson.getCourse();
+        if (course == null || !course.getId().equals(courseId)) {
+            throw new ResourceNotFoundException("Lesson not found with id: " + lessonId);
+        }
+        if (!admin && !userRelationCache.isEnrolled(username, courseId) && !isCourseInstructor(course, username)) {
+            throw new AccessDeniedException("You must be enrolled in this course to watch its lessons");
+        }
+
+        Path path = blobStore.localPath(lesson.getVideoUrl())
+                .orElseThrow(() -> new ResourceNotFoundException("Lesson has no video"));
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            MediaType contentType = MediaTypeFactory.getMediaType(path.getFileName().toString())
+                    .orElse(MediaType.parseMediaType("video/mp4"));
+            return new VideoFile(path, attributes.size(), attributes.lastModifiedTime().toMillis(), contentType);
+        } catch (IOException e) {
+            throw new ResourceNotFoundException("Video file not found for lesson: " + lessonId);
+        }
+    }
+
+    private static boolean isCourseInstructor(Course course, String username) {
+        return course.getInstructor() != null && course.getInstructor().getUser() != null
+                && course.getInstructor().getUser().getUsername().equals(username);
+    }
+}
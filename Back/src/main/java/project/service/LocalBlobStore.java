@@ -0,0 +1,185 @@
+package project.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.file.*;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+// BlobStore on the local filesystem, served by the /uploads/** resource handler. Blobs are sharded
+// two levels deep by the leading hex digits of their name (65,536 leaf directories per namespace),
+// written to a staging directory first and renamed into place. Pre-existing flat /uploads/... URLs
+// still resolve, so older rows keep working.
+@Service
+public class LocalBlobStore implements BlobStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalBlobStore.class);
+
+    public static final String URL_PREFIX = "/uploads/";
+
+    private static final Pattern NAMESPACE = Pattern.compile("[a-z0-9-]+");
+    private static final Pattern EXTENSION = Pattern.compile("\\.[a-z0-9]{1,5}");
+    // A content-addressed name, or one derived from it such as <sha256>@thumb.jpg
+    private static final Pattern CONTENT_ADDRESSED = Pattern.compile("[0-9a-f]{64}(@[a-z0-9-]+)?(\\.[a-z0-9]{1,5})?");
+
+    private final Path root;
+    private final Path stagingDir;
+
+    public LocalBlobStore(@Value("${storage.local.root:uploads}") String root,
+                          @Value("${storage.local.staging-dir:storage-staging}") String stagingDir) {
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+        this.stagingDir = Paths.get(stagingDir).toAbsolutePath().normalize();
+    }
+
+    @Override
+    public String write(String namespace, String extension, BlobWriter writer) throws IOException {
+        Path staged = stage(writer, null);
+        return moveIntoPlace(staged, namespace, UUID.randomUUID().toString().replace("-", "") + normalize(extension));
+    }
+
+    @Override
+    public void writeAt(String url, BlobWriter writer) throws IOException {
+        Path target = localPath(url).orElseThrow(() -> new IllegalArgumentException("Not a stored blob: " + url));
+        Files.createDirectories(target.getParent());
+        move(stage(writer, null), target);
+    }
+
+    @Override
+    public String putDeduplicated(String namespace, String extension, InputStream content) throws IOException {
+        MessageDigest sha256 = sha256();
+        Path staged = stage(content::transferTo, sha256);
+        String name = HexFormat.of().formatHex(sha256.digest()) + normalize(extension);
+        Path target = shardedPath(namespace, name);
+        if (Files.exists(target)) {
+            Files.deleteIfExists(staged);
+            return urlOf(target);
+        }
+        try {
+            return moveIntoPlace(staged, namespace, name);
+        } catch (FileAlreadyExistsException e) {
+            // The same content was stored concurrently
+            Files.deleteIfExists(staged);
+            return urlOf(target);
+        }
+    }
+
+    @Override
+    public String putFile(String namespace, String extension, Path source) throws IOException {
+        return moveIntoPlace(source, namespace, UUID.randomUUID().toString().replace("-", "") + normalize(extension));
+    }
+
+    @Override
+    public InputStream open(String url) throws IOException {
+        Path path = localPath(url).orElseThrow(() -> new FileNotFoundException(url));
+        return new BufferedInputStream(Files.newInputStream(path));
+    }
+
+    @Override
+    public Optional<Path> localPath(String url) {
+        if (url == null || !url.startsWith(URL_PREFIX)) {
+            return Optional.empty();
+        }
+        Path path = root.resolve(url.substring(URL_PREFIX.length())).normalize();
+        return path.startsWith(root) && !path.equals(root) ? Optional.of(path) : Optional.empty();
+    }
+
+    @Override
+    public boolean exists(String url) {
+        return localPath(url).map(Files::isRegularFile).orElse(false);
+    }
+
+    // Content-addressed blobs may be shared by many rows, so they are never deleted through a single reference
+    @Override
+    public boolean delete(String url) {
+        Optional<Path> path = localPath(url);
+        if (path.isEmpty() || CONTENT_ADDRESSED.matcher(path.get().getFileName().toString()).matches()) {
+            return false;
+        }
+        return deleteFile(url, path.get());
+    }
+
+    @Override
+    public boolean purge(String url) {
+        return localPath(url).map(path -> deleteFile(url, path)).orElse(false);
+    }
+
+    private static boolean deleteFile(String url, Path path) {
+        try {
+            return Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Could not delete blob {}", url, e);
+            return false;
+        }
+    }
+
+    private Path stage(BlobWriter writer, MessageDigest digest) throws IOException {
+        Files.createDirectories(stagingDir);
+        Path staged = Files.createTempFile(stagingDir, "blob-", ".tmp");
+        try (OutputStream file = new BufferedOutputStream(Files.newOutputStream(staged));
+             OutputStream out = digest != null ? new DigestOutputStream(file, digest) : file) {
+            writer.writeTo(out);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(staged);
+            throw e;
+        }
+        return staged;
+    }
+
+    private String moveIntoPlace(Path source, String namespace, String name) throws IOException {
+        Path target = shardedPath(namespace, name);
+        Files.createDirectories(target.getParent());
+        move(source, target);
+        return urlOf(target);
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            // Staging directory on another filesystem: copy next to the target, then rename
+            Path sibling = Files.createTempFile(target.getParent(), ".blob-", ".tmp");
+            Files.copy(source, sibling, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(sibling, target, StandardCopyOption.ATOMIC_MOVE);
+            Files.deleteIfExists(source);
+        }
+    }
+
+    private Path shardedPath(String namespace, String name) {
+        if (!NAMESPACE.matcher(namespace).matches()) {
+            throw new IllegalArgumentException("Invalid blob namespace: " + namespace);
+        }
+        return root.resolve(namespace).resolve(name.substring(0, 2)).resolve(name.substring(2, 4)).resolve(name);
+    }
+
+    private String urlOf(Path path) {
+        return URL_PREFIX + root.relativize(path).toString().replace(File.separatorChar, '/');
+    }
+
+    private static String normalize(String extension) {
+        if (extension == null) {
+            return "";
+        }
+        String normalized = extension.toLowerCase();
+        if (!normalized.startsWith(".")) {
+            normalized = "." + normalized;
+        }
+        return EXTENSION.matcher(normalized).matches() ? normalized : "";
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
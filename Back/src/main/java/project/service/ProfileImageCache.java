@@ -0,0 +1,129 @@
+package project.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import project.repository.ImageRepository;
+import project.repository.projection.ImageContentView;
+import project.utils.BoundedCache;
+import project.utils.ImageFormat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+// Serving side of profile images. Which image a user has (content hash and type) is cached per user
+// and evicted when it changes; the bytes are cached by content hash in a byte-bounded LRU, so the
+// default avatar shared by most users is held once. Images over max-entry-bytes are served from the file.
+@Service
+public class ProfileImageCache {
+
+    @Autowired
+    private ImageRepository imageRepository;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    private final BoundedCache<Long, ImageContent> contentByUser;
+    private final BoundedCache<String, byte[]> bytesByHash;
+    private final long maxEntryBytes;
+
+    public static class ImageContent {
+        private final String storageKey;
+        private final String contentHash;
+        private final MediaType contentType;
+        // -1 when the store is not file-backed
+        private final long size;
+
+        ImageContent(String storageKey, String contentHash, MediaType contentType, long size) {
+            this.storageKey = storageKey;
+            this.contentHash = contentHash;
+            this.contentType = contentType;
+            this.size = size;
+        }
+
+        public String getContentHash() {
+            return contentHash;
+        }
+
+        public MediaType getContentType() {
+            return contentType;
+        }
+
+        public String getETag() {
+            return "\"" + contentHash + "\"";
+        }
+    }
+
+    public ProfileImageCache(@Value("${profile-image.cache.max-users:50000}") int maxUsers,
+                             @Value("${profile-image.cache.ttl-seconds:3600}") long ttlSeconds,
+                             @Value("${profile-image.cache.max-bytes:67108864}") long maxBytes,
+                             @Value("${profile-image.cache.max-entry-bytes:1048576}") long maxEntryBytes) {
+        this.contentByUser = new BoundedCache<>("profileImageContent", maxUsers, ttlSeconds);
+        // Content-addressed bytes never go stale, so only the size bound applies
+        this.bytesByHash = new BoundedCache<>("profileImageBytes", maxBytes, TimeUnit.DAYS.toSeconds(365), bytes -> bytes.length);
+        this.maxEntryBytes = maxEntryBytes;
+    }
+
+    public Optional<ImageContent> find(Long userId) {
+        return Optional.ofNullable(contentByUser.get(userId, this::load));
+    }
+
+    public Resource body(ImageContent image) throws IOException {
+        // An unknown size (-1) is streamed rather than read whole into the cache
+        if (image.size >= 0 && image.size <= maxEntryBytes) {
+            try {
+                return new ByteArrayResource(bytesByHash.get(image.contentHash, hash -> read(image.storageKey)));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+        Optional<Path> path = blobStore.localPath(image.storageKey);
+        return path.isPresent() ? new FileSystemResource(path.get()) : new InputStreamResource(blobStore.open(image.storageKey));
+    }
+
+    public void evict(Long userId) {
+        contentByUser.invalidate(userId);
+    }
+
+    public List<Map<String, Object>> stats() {
+        return List.of(contentByUser.stats(), bytesByHash.stats());
+    }
+
+    private ImageContent load(Long userId) {
+        Optional<ImageContentView> view = imageRepository.findContentByUserEntityId(userId);
+        if (view.isEmpty() || view.get().getStorageKey() == null || view.get().getContentHash() == null) {
+            return null;
+        }
+        // Rows written before uploads were sniffed may carry any client-declared type; serve those as JPEG
+        MediaType contentType = MediaType.parseMediaType(ImageFormat.fromContentType(view.get().getContentType())
+                .orElse(ImageFormat.JPEG).getContentType());
+        long size = blobStore.localPath(view.get().getStorageKey()).map(path -> {
+            try {
+                return Files.size(path);
+            } catch (IOException e) {
+                return -1L;
+            }
+        }).orElse(-1L);
+        return new ImageContent(view.get().getStorageKey(), view.get().getContentHash(), contentType, size);
+    }
+
+    private byte[] read(String storageKey) {
+        try (InputStream in = blobStore.open(storageKey)) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
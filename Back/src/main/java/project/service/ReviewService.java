@@ -3,20 +3,31 @@ package project.service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import project.dto.CourseDTO;
 import project.dto.ReviewDTO;
+import project.dto.ReviewPageDTO;
 import project.exception.ResourceNotFoundException;
 import project.models.*;
 import project.repository.CourseRepository;
 import project.repository.EnrollmentRepository;
 import project.repository.ReviewRepository;
 import project.repository.UserRepository;
+import project.repository.projection.CourseRatingView;
+import project.repository.projection.RatingCountView;
+import project.utils.ReviewCursor;
 
 import javax.transaction.Transactional;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,6 +35,9 @@ public class ReviewService {
 
     private static final Logger logger = LoggerFactory.getLogger(ReviewService.class);
 
+    private static final int DEFAULT_REVIEW_PAGE_SIZE = 10;
+    private static final int MAX_REVIEW_PAGE_SIZE = 50;
+
     @Autowired
     private ReviewRepository reviewRepository;
 
@@ -39,6 +53,21 @@ public class ReviewService {
     @Autowired
     private NotificationService notificationService;
 
+    @Autowired
+    private CourseFacetIndex courseFacetIndex;
+
+    @Autowired
+    private CourseCache courseCache;
+
+    @Autowired
+    private TrendingCourseTracker trendingCourseTracker;
+
+    @Autowired
+    private InstructorStatsService instructorStatsService;
+
+    @Autowired
+    private CourseService courseService;
+
     @Transactional
     public ReviewDTO createReview(Long courseId, Long userId, ReviewDTO reviewDTO) {
         logger.info("User {} is attempting to create a review for course {}", userId, courseId);
@@ -65,7 +94,8 @@ public class ReviewService {
         review = reviewRepository.save(review);
         logger.info("Review {} created successfully for course {} by user {}", review.getId(), courseId, userId);
 
-        updateCourseRating(course);
+        applyRatingChange(course, null, review.getRating());
+        trendingCourseTracker.recordReview(courseId);
 
         Instructor instructor = course.getInstructor();
         if (instructor == null) {
@@ -112,13 +142,14 @@ public class ReviewService {
             throw new IllegalStateException("User is not authorized to update this review");
         }
 
+        Double previousRating = review.getRating();
         review.setRating(reviewDTO.getRating());
         review.setComment(reviewDTO.getComment());
 
         review = reviewRepository.save(review);
 
         Course course = review.getCourse();
-        updateCourseRating(course);
+        applyRatingChange(course, previousRating, review.getRating());
 
         Instructor instructor = course.getInstructor();
         if (instructor == null) {
@@ -169,7 +200,7 @@ public class ReviewService {
         UserEntity user = review.getUser();
 
         reviewRepository.delete(review);
-        updateCourseRating(course);
+        applyRatingChange(course, review.getRating(), null);
 
         Instructor instructor = course.getInstructor();
         if (instructor == null) {
@@ -222,22 +253,129 @@ public class ReviewService {
                 .collect(Collectors.toList());
     }
 
-    private void updateCourseRating(Course course) {
-        List<Review> reviews = reviewRepository.findByCourse(course);
-        if (!reviews.isEmpty()) {
-            double averageRating = reviews.stream()
-                    .mapToDouble(Review::getRating)
-                    .average()
-                    .orElse(0.0);
-            // Round to 1 decimal place
-            BigDecimal roundedRating = BigDecimal.valueOf(averageRating)
-                    .setScale(1, RoundingMode.HALF_UP);
-            course.setRating(roundedRating.doubleValue());
-            course.setTotalReviews(reviews.size());
+    public ReviewPageDTO getReviewPage(Long courseId, String sortBy, String cursorToken, Integer size) {
+        ReviewCursor.Sort sort = ReviewCursor.Sort.fromParam(sortBy);
+        boolean firstPage = cursorToken == null || cursorToken.isBlank();
+        ReviewCursor cursor = firstPage ? ReviewCursor.start(sort) : ReviewCursor.decode(cursorToken, sort);
+
+        // The cached course carries the precomputed histogram and doubles as the existence check
+        CourseDTO course = firstPage ? courseService.getCourseById(courseId) : null;
+
+        int pageSize = size == null ? DEFAULT_REVIEW_PAGE_SIZE : Math.max(1, Math.min(size, MAX_REVIEW_PAGE_SIZE));
+        // Fetch one extra row to know whether another page exists
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+
+        List<ReviewDTO> rows = sort == ReviewCursor.Sort.RATING
+                ? reviewRepository.findPageByRating(courseId, cursor.ratingKey(), cursor.getLastId(), limit)
+                : reviewRepository.findPageByCreatedAt(courseId, cursor.createdAtKey(), cursor.getLastId(), limit);
+
+        ReviewPageDTO page;
+        if (rows.size() <= pageSize) {
+            page = new ReviewPageDTO(rows, null);
         } else {
-            course.setRating(0.0);
-            course.setTotalReviews(0);
+            List<ReviewDTO> reviews = rows.subList(0, pageSize);
+            ReviewDTO last = reviews.get(pageSize - 1);
+            Object key = sort == ReviewCursor.Sort.RATING ? last.getRating() : last.getCreatedAt();
+            page = new ReviewPageDTO(reviews, ReviewCursor.after(sort, key, last.getId()).encode());
+        }
+
+        if (course != null) {
+            page.setRatingDistribution(course.getRatingDistribution());
+            page.setTotalReviews(course.getTotalReviews());
+            page.setAverageRating(course.getRating());
         }
+        return page;
+    }
+
+    // Constant work per review write: one atomic increment of the course aggregates, then the
+    // average is derived from the incremented row while its lock is still held. The previous average
+    // is read under that lock too, so the instructor delta excludes concurrent review writes.
+    private void applyRatingChange(Course course, Double removedRating, Double addedRating) {
+        double previousRating = courseRepository.findRatingForUpdate(course.getId());
+
+        int[] starDeltas = new int[5];
+        double sumDelta = 0.0;
+        int countDelta = 0;
+        if (removedRating != null) {
+            starDeltas[starIndex(removedRating)]--;
+            sumDelta -= removedRating;
+            countDelta--;
+        }
+        if (addedRating != null) {
+            starDeltas[starIndex(addedRating)]++;
+            sumDelta += addedRating;
+            countDelta++;
+        }
+        courseRepository.applyRatingDelta(course.getId(), sumDelta, countDelta,
+                starDeltas[0], starDeltas[1], starDeltas[2], starDeltas[3], starDeltas[4]);
+
+        CourseRatingView aggregates = courseRepository.findRatingAggregates(course.getId());
+        course.setRatingSum(aggregates.getRatingSum());
+        course.setTotalReviews(aggregates.getTotalReviews());
+        course.setOneStarReviews(aggregates.getOneStarReviews());
+        course.setTwoStarReviews(aggregates.getTwoStarReviews());
+        course.setThreeStarReviews(aggregates.getThreeStarReviews());
+        course.setFourStarReviews(aggregates.getFourStarReviews());
+        course.setFiveStarReviews(aggregates.getFiveStarReviews());
+        course.setRating(averageRating(aggregates.getRatingSum(), aggregates.getTotalReviews()));
         courseRepository.save(course);
+
+        instructorStatsService.reviewsChanged(course, countDelta, course.getRating() - previousRating);
+        courseFacetIndex.index(course);
+        courseCache.evictCourse(course.getId(), course.getInstructor() != null ? course.getInstructor().getId() : null);
+    }
+
+    // Rebuilds the aggregates of courses whose columns predate them or have drifted from totalReviews
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillRatingAggregates() {
+        List<Long> staleIds = courseRepository.findIdsWithStaleRatingAggregates();
+        if (staleIds.isEmpty()) {
+            return;
+        }
+        Map<Long, Course> courses = courseRepository.findAllById(staleIds).stream()
+                .collect(Collectors.toMap(Course::getId, Function.identity()));
+        for (Course course : courses.values()) {
+            course.setRatingSum(0.0);
+            course.setTotalReviews(0);
+            course.setOneStarReviews(0);
+            course.setTwoStarReviews(0);
+            course.setThreeStarReviews(0);
+            course.setFourStarReviews(0);
+            course.setFiveStarReviews(0);
+        }
+        for (RatingCountView count : reviewRepository.countByCourseIdInAndRating(staleIds)) {
+            Course course = courses.get(count.getCourseId());
+            int reviews = count.getReviews().intValue();
+            course.setRatingSum(course.getRatingSum() + count.getRating() * reviews);
+            course.setTotalReviews(course.getTotalReviews() + reviews);
+            switch (starIndex(count.getRating())) {
+                case 0: course.setOneStarReviews(course.getOneStarReviews() + reviews); break;
+                case 1: course.setTwoStarReviews(course.getTwoStarReviews() + reviews); break;
+                case 2: course.setThreeStarReviews(course.getThreeStarReviews() + reviews); break;
+                case 3: course.setFourStarReviews(course.getFourStarReviews() + reviews); break;
+                default: course.setFiveStarReviews(course.getFiveStarReviews() + reviews); break;
+            }
+        }
+        for (Course course : courses.values()) {
+            course.setRating(averageRating(course.getRatingSum(), course.getTotalReviews()));
+        }
+        courseRepository.saveAll(courses.values());
+        logger.info("Backfilled rating aggregates for {} courses", courses.size());
+    }
+
+    // Star bucket 0..4 for a 1..5 rating; half stars round up
+    private static int starIndex(double rating) {
+        return Math.max(1, Math.min(5, (int) Math.round(rating))) - 1;
+    }
+
+    private static double averageRating(double ratingSum, int totalReviews) {
+        if (totalReviews <= 0) {
+            return 0.0;
+        }
+        // Round to 1 decimal place
+        return BigDecimal.valueOf(ratingSum / totalReviews)
+                .setScale(1, RoundingMode.HALF_UP)
+                .doubleValue();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,251 @@
+package project.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import project.dto.CourseDTO;
+import project.repository.BookmarkRepository;
+import project.repository.CourseRepository;
+import project.repository.EnrollmentRepository;
+import project.repository.ReviewRepository;
+import project.repository.projection.CourseActivityView;
+import project.utils.CountMinSketch;
+import project.utils.TransactionCallbacks;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// "Trending now" rankings over sliding 1h, 24h and 7d windows. Each window is a ring of
+// time-bucketed Count-Min sketches plus a running sum of the live buckets, so expiring a bucket is
+// one subtraction. A bounded candidate set tracks the current heavy hitters; a scheduled pass picks
+// the top courses with a min-heap and publishes the ranked DTOs for lock-free reads.
+@Component
+public class TrendingCourseTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrendingCourseTracker.class);
+
+    public static final int MAX_TRENDING = 50;
+    private static final int CANDIDATES = 4 * MAX_TRENDING;
+
+    private static final int SKETCH_WIDTH = 2048;
+    private static final int SKETCH_DEPTH = 4;
+
+    // Enrollments signal more intent than reviews, reviews more than bookmarks
+    private static final int ENROLLMENT_WEIGHT = 3;
+    private static final int REVIEW_WEIGHT = 2;
+    private static final int BOOKMARK_WEIGHT = 1;
+
+    private static final long MINUTE = 60_000L;
+    private static final long HOUR = 60 * MINUTE;
+
+    // Highest count first, newer course ids breaking ties
+    private static final Comparator<Map.Entry<Long, Integer>> RANKING = Map.Entry.<Long, Integer>comparingByValue().reversed()
+            .thenComparing(Map.Entry.<Long, Integer>comparingByKey().reversed());
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    private BookmarkRepository bookmarkRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    private final Map<String, Window> windows = new LinkedHashMap<>();
+
+    public TrendingCourseTracker() {
+        windows.put("1h", new Window(5 * MINUTE, 12));
+        windows.put("24h", new Window(HOUR, 24));
+        windows.put("7d", new Window(6 * HOUR, 28));
+    }
+
+    private static class Window {
+        final long bucketMillis;
+        final CountMinSketch[] buckets;
+        final CountMinSketch total = new CountMinSketch(SKETCH_WIDTH, SKETCH_DEPTH);
+        final Map<Long, Integer> candidates = new HashMap<>();
+        long currentBucket = Long.MIN_VALUE;
+
+        volatile List<CourseDTO> ranking = Collections.emptyList();
+
+        Window(long bucketMillis, int bucketCount) {
+            this.bucketMillis = bucketMillis;
+            this.buckets = new CountMinSketch[bucketCount];
+            for (int i = 0; i < bucketCount; i++) {
+                buckets[i] = new CountMinSketch(SKETCH_WIDTH, SKETCH_DEPTH);
+            }
+        }
+
+        long spanMillis() {
+            return bucketMillis * buckets.length;
+        }
+
+        // Expires buckets that have slid out of the window and re-scores the candidates
+        void advanceTo(long now) {
+            long bucket = now / bucketMillis;
+            if (currentBucket == Long.MIN_VALUE) {
+                currentBucket = bucket;
+                return;
+            }
+            if (bucket <= currentBucket) {
+                return;
+            }
+            long expired = Math.min(bucket - currentBucket, buckets.length);
+            for (long b = currentBucket + 1; b <= currentBucket + expired; b++) {
+                CountMinSketch sketch = buckets[slot(b)];
+                total.subtractAll(sketch);
+                sketch.clear();
+            }
+            currentBucket = bucket;
+            candidates.replaceAll((courseId, count) -> total.estimate(courseId));
+            candidates.values().removeIf(count -> count <= 0);
+        }
+
+        void add(long courseId, int weight, long occurredAt) {
+            long bucket = occurredAt / bucketMillis;
+            if (bucket > currentBucket || bucket <= currentBucket - buckets.length) {
+                return;
+            }
+            buckets[slot(bucket)].add(courseId, weight);
+            total.add(courseId, weight);
+            candidates.put(courseId, total.estimate(courseId));
+            if (candidates.size() > CANDIDATES) {
+                candidates.remove(weakestCandidate());
+            }
+        }
+
+        List<Long> top(int limit) {
+            // Min-heap of the best `limit` candidates seen so far
+            PriorityQueue<Map.Entry<Long, Integer>> heap = new PriorityQueue<>(limit + 1, RANKING.reversed());
+            for (Map.Entry<Long, Integer> entry : candidates.entrySet()) {
+                heap.offer(entry);
+                if (heap.size() > limit) {
+                    heap.poll();
+                }
+            }
+            List<Map.Entry<Long, Integer>> best = new ArrayList<>(heap);
+            best.sort(RANKING);
+            return best.stream().map(Map.Entry::getKey).collect(Collectors.toList());
+        }
+
+        private Long weakestCandidate() {
+            Map.Entry<Long, Integer> weakest = null;
+            for (Map.Entry<Long, Integer> entry : candidates.entrySet()) {
+                if (weakest == null || RANKING.compare(entry, weakest) > 0) {
+                    weakest = entry;
+                }
+            }
+            return weakest.getKey();
+        }
+
+        private int slot(long bucket) {
+            return (int) Math.floorMod(bucket, (long) buckets.length);
+        }
+    }
+
+    // Sketches live in memory, so recent activity is replayed once at startup
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long start = System.currentTimeMillis();
+        long longestSpan = windows.values().stream().mapToLong(Window::spanMillis).max().orElse(0L);
+        LocalDateTime since = LocalDateTime.now().minusSeconds(longestSpan / 1000);
+
+        int events = 0;
+        events += replay(enrollmentRepository.findActivitySince(since), ENROLLMENT_WEIGHT);
+        events += replay(bookmarkRepository.findActivitySince(since), BOOKMARK_WEIGHT);
+        events += replay(reviewRepository.findActivitySince(since), REVIEW_WEIGHT);
+        refresh();
+        logger.info("Trending tracker replayed {} events in {} ms", events, System.currentTimeMillis() - start);
+    }
+
+    public void recordEnrollment(Long courseId) {
+        recordAfterCommit(courseId, ENROLLMENT_WEIGHT);
+    }
+
+    public void recordBookmark(Long courseId) {
+        recordAfterCommit(courseId, BOOKMARK_WEIGHT);
+    }
+
+    public void recordReview(Long courseId) {
+        recordAfterCommit(courseId, REVIEW_WEIGHT);
+    }
+
+    // Counts already in the sketches cannot be taken back, so a deleted course is only dropped from ranking
+    public void removeCourse(Long courseId) {
+        for (Window window : windows.values()) {
+            synchronized (window) {
+                window.candidates.remove(courseId);
+            }
+        }
+    }
+
+    public List<CourseDTO> getTrending(String window, int limit) {
+        Window selected = windows.get(window);
+        if (selected == null) {
+            throw new IllegalArgumentException("Unknown trending window: " + window + ", expected one of " + windows.keySet());
+        }
+        List<CourseDTO> ranking = selected.ranking;
+        return ranking.subList(0, Math.max(0, Math.min(limit, ranking.size())));
+    }
+
+    @Scheduled(fixedDelayString = "${course.trending.refresh-ms:60000}", initialDelayString = "${course.trending.refresh-ms:60000}")
+    public void refresh() {
+        long now = System.currentTimeMillis();
+        Map<Window, List<Long>> rankedIds = new HashMap<>();
+        Set<Long> allIds = new HashSet<>();
+        for (Window window : windows.values()) {
+            List<Long> ids;
+            synchronized (window) {
+                window.advanceTo(now);
+                ids = window.top(MAX_TRENDING);
+            }
+            rankedIds.put(window, ids);
+            allIds.addAll(ids);
+        }
+
+        Map<Long, CourseDTO> byId = allIds.isEmpty()
+                ? Collections.emptyMap()
+                : courseRepository.findCourseDTOsByIdIn(allIds).stream()
+                        .collect(Collectors.toMap(CourseDTO::getId, Function.identity()));
+        for (Window window : windows.values()) {
+            window.ranking = rankedIds.get(window).stream()
+                    .map(byId::get)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toUnmodifiableList());
+        }
+    }
+
+    private int replay(List<CourseActivityView> activity, int weight) {
+        ZoneId zone = ZoneId.systemDefault();
+        for (CourseActivityView view : activity) {
+            if (view.getCourseId() != null && view.getOccurredAt() != null) {
+                record(view.getCourseId(), weight, view.getOccurredAt().atZone(zone).toInstant().toEpochMilli());
+            }
+        }
+        return activity.size();
+    }
+
+    private void recordAfterCommit(Long courseId, int weight) {
+        TransactionCallbacks.afterCommit(() -> record(courseId, weight, System.currentTimeMillis()));
+    }
+
+    private void record(long courseId, int weight, long occurredAt) {
+        long now = System.currentTimeMillis();
+        for (Window window : windows.values()) {
+            synchronized (window) {
+                window.advanceTo(now);
+                window.add(courseId, weight, occurredAt);
+            }
+        }
+    }
+}
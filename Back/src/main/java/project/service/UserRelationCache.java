@@ -0,0 +1,133 @@
+package project.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import project.dto.CourseDTO;
+import project.repository.BookmarkRepository;
+import project.repository.EnrollmentRepository;
+import project.repository.InstructorRepository;
+import project.utils.BoundedCache;
+import project.utils.SortedLongSet;
+import project.utils.TransactionCallbacks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+// Per-user bookmarked course, enrolled course and followed instructor ids, keyed by username so
+// that decorating a page for the authenticated principal needs no user lookup. Sets are loaded
+// once per user and patched on bookmark, enrollment and follow changes after they commit.
+@Component
+public class UserRelationCache {
+
+    @Autowired
+    private BookmarkRepository bookmarkRepository;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    private InstructorRepository instructorRepository;
+
+    private final BoundedCache<String, Relations> relations;
+
+    private static class Relations {
+        final SortedLongSet bookmarkedCourses;
+        final SortedLongSet enrolledCourses;
+        final SortedLongSet followedInstructors;
+
+        Relations(SortedLongSet bookmarkedCourses, SortedLongSet enrolledCourses, SortedLongSet followedInstructors) {
+            this.bookmarkedCourses = bookmarkedCourses;
+            this.enrolledCourses = enrolledCourses;
+            this.followedInstructors = followedInstructors;
+        }
+    }
+
+    public UserRelationCache(@Value("${user.relations.cache.max-size:10000}") int maxSize,
+                             @Value("${user.relations.cache.ttl-seconds:900}") long ttlSeconds) {
+        this.relations = new BoundedCache<>("userRelations", maxSize, ttlSeconds);
+    }
+
+    // Returns copies flagged for the given user, or the input unchanged for anonymous requests
+    public List<CourseDTO> decorate(List<CourseDTO> courses, String username) {
+        if (username == null || courses.isEmpty()) {
+            return courses;
+        }
+        Relations current = relationsFor(username);
+        List<CourseDTO> decorated = new ArrayList<>(courses.size());
+        for (CourseDTO course : courses) {
+            decorated.add(decorate(course, current));
+        }
+        return decorated;
+    }
+
+    public CourseDTO decorate(CourseDTO course, String username) {
+        if (username == null || course == null) {
+            return course;
+        }
+        return decorate(course, relationsFor(username));
+    }
+
+    public boolean isEnrolled(String username, Long courseId) {
+        return username != null && relationsFor(username).enrolledCourses.contains(courseId);
+    }
+
+    public boolean isFollowing(String username, Long instructorId) {
+        return username != null && relationsFor(username).followedInstructors.contains(instructorId);
+    }
+
+    public void bookmarkAdded(String username, Long courseId) {
+        updateAfterCommit(username, r -> new Relations(r.bookmarkedCourses.with(courseId), r.enrolledCourses, r.followedInstructors));
+    }
+
+    public void bookmarkRemoved(String username, Long courseId) {
+        updateAfterCommit(username, r -> new Relations(r.bookmarkedCourses.without(courseId), r.enrolledCourses, r.followedInstructors));
+    }
+
+    public void enrolled(String username, Long courseId) {
+        updateAfterCommit(username, r -> new Relations(r.bookmarkedCourses, r.enrolledCourses.with(courseId), r.followedInstructors));
+    }
+
+    public void unenrolled(String username, Long courseId) {
+        updateAfterCommit(username, r -> new Relations(r.bookmarkedCourses, r.enrolledCourses.without(courseId), r.followedInstructors));
+    }
+
+    public void followed(String username, Long instructorId) {
+        updateAfterCommit(username, r -> new Relations(r.bookmarkedCourses, r.enrolledCourses, r.followedInstructors.with(instructorId)));
+    }
+
+    public void unfollowed(String username, Long instructorId) {
+        updateAfterCommit(username, r -> new Relations(r.bookmarkedCourses, r.enrolledCourses, r.followedInstructors.without(instructorId)));
+    }
+
+    // Used when a user is renamed or deleted
+    public void evict(String username) {
+        relations.invalidate(username);
+        TransactionCallbacks.afterCommit(() -> relations.invalidate(username));
+    }
+
+    public Map<String, Object> stats() {
+        return relations.stats();
+    }
+
+    private Relations relationsFor(String username) {
+        return relations.get(username, name -> new Relations(
+                SortedLongSet.of(bookmarkRepository.findCourseIdsByUsername(name)),
+                SortedLongSet.of(enrollmentRepository.findCourseIdsByStudentUsername(name)),
+                SortedLongSet.of(instructorRepository.findFollowedInstructorIdsByUsername(name))));
+    }
+
+    private static CourseDTO decorate(CourseDTO course, Relations current) {
+        CourseDTO copy = course.copy();
+        copy.setBookmarked(current.bookmarkedCourses.contains(course.getId()));
+        copy.setEnrolled(current.enrolledCourses.contains(course.getId()));
+        copy.setFollowingInstructor(current.followedInstructors.contains(course.getInstructorId()));
+        return copy;
+    }
+
+    private void updateAfterCommit(String username, UnaryOperator<Relations> change) {
+        TransactionCallbacks.afterCommit(() -> relations.update(username, change));
+    }
+}
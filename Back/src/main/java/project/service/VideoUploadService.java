@@ -0,0 +1,346 @@
+package project.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.dto.LessonDTO;
+import project.dto.VideoUploadDTO;
+import project.dto.VideoUploadRequestDTO;
+import project.exception.FileUploadException;
+import project.exception.ResourceNotFoundException;
+import project.models.VideoUpload;
+import project.repository.VideoUploadRepository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.BitSet;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Resumable, chunked lesson video uploads. A session preallocates the file at its final size; chunks
+// of a fixed size are accepted in any order and in parallel, each written with positional channel
+// writes at index * chunkSize and hashed on the way in. Completion checks that every chunk landed,
+// verifies the checksum over the chunk digests and moves the file into the lesson's video storage.
+// Part files are local to this instance, so an in-process read/write lock per upload lets chunks
+// be written in parallel while completion waits for the ones in flight; the session is then marked
+// completing under its row lock and later chunks and completions are rejected.
+@Service
+public class VideoUploadService {
+
+    private static final Logger logger = LoggerFactory.getLogger(VideoUploadService.class);
+
+    private static final int DIGEST_LENGTH = 32;
+    private static final int IO_BUFFER_SIZE = 64 * 1024;
+
+    @Autowired
+    private VideoUploadRepository videoUploadRepository;
+
+    @Autowired
+    private LessonService lessonService;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${lesson.upload.chunk-size-bytes:8388608}")
+    private int chunkSize;
+
+    @Value("${lesson.upload.temp-dir:upload-parts}")
+    private String tempDir;
+
+    @Value("${lesson.upload.expiry-hours:24}")
+    private long expiryHours;
+
+    private final ConcurrentHashMap<String, ReadWriteLock> uploadLocks = new ConcurrentHashMap<>();
+
+    public VideoUploadDTO createUpload(Long courseId, String username, VideoUploadRequestDTO request) {
+        if (!LessonService.isAllowedVideoType(request.getContentType())) {
+            throw new IllegalArgumentException("Invalid video format. Allowed formats: MP4, MPEG, MOV, AVI");
+        }
+        if (request.getTotalSize() <= 0 || request.getTotalSize() > LessonService.MAX_VIDEO_SIZE) {
+            throw new IllegalArgumentException("Video file size exceeds maximum limit of 500MB");
+        }
+
+        VideoUpload upload = new VideoUpload();
+        upload.setId(UUID.randomUUID().toString());
+        upload.setCourseId(courseId);
+        upload.setUsername(username);
+        upload.setFileName(request.getFileName());
+        upload.setContentType(request.getContentType());
+        upload.setTotalSize(request.getTotalSize());
+        upload.setChunkSize(chunkSize);
+        upload.setChunkCount((int) ((request.getTotalSize() + chunkSize - 1) / chunkSize));
+        upload.setReceivedChunks(new byte[0]);
+        upload.setChunkDigests(new byte[upload.getChunkCount() * DIGEST_LENGTH]);
+        upload.setCreatedAt(LocalDateTime.now());
+        upload.setUpdatedAt(upload.getCreatedAt());
+
+        try {
+            Files.createDirectories(Paths.get(tempDir));
+            try (RandomAccessFile file = new RandomAccessFile(partPath(upload.getId()).toFile(), "rw")) {
+                file.setLength(upload.getTotalSize());
+            }
+        } catch (IOException e) {
+            throw new FileUploadException("Could not allocate upload file", e);
+        }
+        return VideoUploadDTO.fromEntity(videoUploadRepository.save(upload));
+    }
+
+    public VideoUploadDTO getUpload(Long courseId, String uploadId, String username) {
+        return VideoUploadDTO.fromEntity(findOwned(courseId, uploadId, username));
+    }
+
+    // The chunk is written under the upload's shared lock only; its bookkeeping is serialized on the row
+    public VideoUploadDTO putChunk(Long courseId, String uploadId, int index, String username,
+                                   InputStream body, String expectedDigest) {
+        ReadWriteLock lock = lockOf(uploadId);
+        Lock shared = lock.readLock();
+        shared.lock();
+        try {
+            VideoUpload upload = findOwnedOrReleaseLock(courseId, uploadId, username, lock);
+            if (upload.isCompleting()) {
+                throw new IllegalStateException("Upload " + uploadId + " is being completed");
+            }
+            if (index < 0 || index >= upload.getChunkCount()) {
+                throw new IllegalArgumentException("Chunk index out of range: " + index);
+            }
+
+            byte[] digest = writeChunk(upload, index, body);
+            if (expectedDigest != null && !HexFormat.of().formatHex(digest).equalsIgnoreCase(expectedDigest)) {
+                throw new IllegalArgumentException("Checksum mismatch for chunk " + index);
+            }
+
+            return transactionTemplate.execute(status -> {
+                VideoUpload locked = videoUploadRepository.findByIdForUpdate(uploadId)
+                        .orElseThrow(() -> new ResourceNotFoundException("Upload not found: " + uploadId));
+                BitSet received = BitSet.valueOf(locked.getReceivedChunks());
+                if (!received.get(index)) {
+                    received.set(index);
+                    locked.setReceivedChunks(received.toByteArray());
+                    locked.setReceivedCount(locked.getReceivedCount() + 1);
+                }
+                byte[] digests = locked.getChunkDigests();
+                System.arraycopy(digest, 0, digests, index * DIGEST_LENGTH, DIGEST_LENGTH);
+                locked.setChunkDigests(digests);
+                locked.setUpdatedAt(LocalDateTime.now());
+                return VideoUploadDTO.fromEntity(videoUploadRepository.save(locked));
+            });
+        } finally {
+            shared.unlock();
+        }
+    }
+
+    // The checksum is the hex SHA-256 over the chunk digests, which the client can only compute once it
+    // knows the chunk size, so it is supplied here rather than when the upload is created
+    public LessonDTO completeUpload(Long courseId, String uploadId, String username, Long lessonId, String title,
+                                    String checksum) {
+        if (lessonId == null && (title == null || title.isBlank())) {
+            throw new IllegalArgumentException("A title is required to create a lesson");
+        }
+        VideoUpload upload = startCompletion(courseId, uploadId, username);
+
+        String videoUrl;
+        try {
+            String actual = HexFormat.of().formatHex(sha256().digest(upload.getChunkDigests()));
+            if (checksum != null && !checksum.equalsIgnoreCase(actual)) {
+                throw new IllegalArgumentException("Checksum mismatch: expected " + checksum + " but got " + actual);
+            }
+            videoUrl = blobStore.putFile(LessonService.VIDEO_NAMESPACE, extensionOf(upload.getFileName()), partPath(uploadId));
+            logger.info("Upload {} completed: {} bytes in {} chunks, checksum {}", uploadId, upload.getTotalSize(),
+                    upload.getChunkCount(), actual);
+        } catch (IOException e) {
+            cancelCompletion(uploadId);
+            throw new FileUploadException("Could not store uploaded video", e);
+        } catch (RuntimeException e) {
+            // Leaves the session open so the client can resend chunks and complete again
+            cancelCompletion(uploadId);
+            throw e;
+        }
+        videoUploadRepository.deleteById(uploadId);
+        uploadLocks.remove(uploadId);
+
+        try {
+            return lessonId != null
+                    ? lessonService.replaceLessonVideo(courseId, lessonId, videoUrl)
+                    : lessonService.addLessonWithVideo(courseId, title, videoUrl);
+        } catch (RuntimeException e) {
+            blobStore.delete(videoUrl);
+            throw e;
+        }
+    }
+
+    public void abortUpload(Long courseId, String uploadId, String username) {
+        ReadWriteLock lock = lockOf(uploadId);
+        Lock exclusive = lock.writeLock();
+        exclusive.lock();
+        try {
+            if (findOwnedOrReleaseLock(courseId, uploadId, username, lock).isCompleting()) {
+                throw new IllegalStateException("Upload " + uploadId + " is being completed");
+            }
+            discard(uploadId);
+        } finally {
+            exclusive.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${lesson.upload.cleanup-ms:3600000}")
+    public void discardExpiredUploads() {
+        for (VideoUpload upload : videoUploadRepository.findByUpdatedAtBefore(LocalDateTime.now().minusHours(expiryHours))) {
+            Lock exclusive = lockOf(upload.getId()).writeLock();
+            // Uploads with chunks or a completion in flight are left for the next pass
+            if (upload.isCompleting() || !exclusive.tryLock()) {
+                continue;
+            }
+            try {
+                discard(upload.getId());
+            } finally {
+                exclusive.unlock();
+            }
+            logger.info("Discarded expired upload {} of {}", upload.getId(), upload.getUsername());
+        }
+    }
+
+    // Waits for chunks in flight, then marks the session completing under its row lock
+    private VideoUpload startCompletion(Long courseId, String uploadId, String username) {
+        ReadWriteLock lock = lockOf(uploadId);
+        Lock exclusive = lock.writeLock();
+        exclusive.lock();
+        try {
+            return transactionTemplate.execute(status -> {
+                VideoUpload upload = videoUploadRepository.findByIdForUpdate(uploadId).orElseThrow(() -> {
+                    uploadLocks.remove(uploadId, lock);
+                    return new ResourceNotFoundException("Upload not found: " + uploadId);
+                });
+                checkOwner(upload, courseId, username);
+                if (upload.isCompleting()) {
+                    throw new IllegalStateException("Upload " + uploadId + " is already being completed");
+                }
+                if (upload.getReceivedCount() < upload.getChunkCount()) {
+                    throw new IllegalStateException("Upload is missing " + (upload.getChunkCount() - upload.getReceivedCount()) + " chunks");
+                }
+                upload.setCompleting(true);
+                upload.setUpdatedAt(LocalDateTime.now());
+                return videoUploadRepository.save(upload);
+            });
+        } finally {
+            exclusive.unlock();
+        }
+    }
+
+    private void cancelCompletion(String uploadId) {
+        transactionTemplate.executeWithoutResult(status -> videoUploadRepository.findByIdForUpdate(uploadId).ifPresent(upload -> {
+            upload.setCompleting(false);
+            videoUploadRepository.save(upload);
+        }));
+    }
+
+    private ReadWriteLock lockOf(String uploadId) {
+        return uploadLocks.computeIfAbsent(uploadId, id -> new ReentrantReadWriteLock());
+    }
+
+    private byte[] writeChunk(VideoUpload upload, int index, InputStream body) {
+        MessageDigest digest = sha256();
+        long position = (long) upload.getChunkSize() * index;
+        long expected = upload.chunkLength(index);
+        long written = 0;
+        ByteBuffer buffer = ByteBuffer.allocate(IO_BUFFER_SIZE);
+        try (ReadableByteChannel in = Channels.newChannel(body);
+             FileChannel file = FileChannel.open(partPath(upload.getId()), StandardOpenOption.WRITE)) {
+            while (in.read(buffer) != -1) {
+                buffer.flip();
+                written += buffer.remaining();
+                if (written > expected) {
+                    throw new IllegalArgumentException("Chunk " + index + " is larger than " + expected + " bytes");
+                }
+                digest.update(buffer.array(), 0, buffer.limit());
+                while (buffer.hasRemaining()) {
+                    position += file.write(buffer, position);
+                }
+                buffer.clear();
+            }
+        } catch (NoSuchFileException e) {
+            throw new ResourceNotFoundException("Upload not found: " + upload.getId());
+        } catch (IOException e) {
+            throw new FileUploadException("Could not write chunk " + index, e);
+        }
+        if (written != expected) {
+            throw new IllegalArgumentException("Chunk " + index + " must be " + expected + " bytes but was " + written);
+        }
+        return digest.digest();
+    }
+
+    private VideoUpload findOwned(Long courseId, String uploadId, String username) {
+        VideoUpload upload = videoUploadRepository.findById(uploadId)
+                .orElseThrow(() -> new ResourceNotFoundException("Upload not found: " + uploadId));
+        checkOwner(upload, courseId, username);
+        return upload;
+    }
+
+    // Requests for unknown or finished uploads must not leave their lock behind in uploadLocks. The lock
+    // of an upload that still exists is kept even when the caller does not own it, as its owner may hold it.
+    private VideoUpload findOwnedOrReleaseLock(Long courseId, String uploadId, String username, ReadWriteLock lock) {
+        VideoUpload upload = videoUploadRepository.findById(uploadId).orElseThrow(() -> {
+            uploadLocks.remove(uploadId, lock);
+            return new ResourceNotFoundException("Upload not found: " + uploadId);
+        });
+        checkOwner(upload, courseId, username);
+        return upload;
+    }
+
+    private static void checkOwner(VideoUpload upload, Long courseId, String username) {
+        if (!upload.getCourseId().equals(courseId) || !upload.getUsername().equals(username)) {
+            throw new ResourceNotFoundException("Upload not found: " + upload.getId());
+        }
+    }
+
+    private void discard(String uploadId) {
+        videoUploadRepository.deleteById(uploadId);
+        deleteQuietly(partPath(uploadId));
+        uploadLocks.remove(uploadId);
+    }
+
+    private Path partPath(String uploadId) {
+        return Paths.get(tempDir).resolve(uploadId + ".part");
+    }
+
+    private static String extensionOf(String fileName) {
+        int dot = fileName != null ? fileName.lastIndexOf('.') : -1;
+        String extension = dot >= 0 ? fileName.substring(dot) : "";
+        return extension.matches("\\.[A-Za-z0-9]{1,5}") ? extension.toLowerCase() : ".mp4";
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Could not delete {}", path, e);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -1,31 +1,57 @@
 package project.service;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
-import project.models.Gender;
 import project.models.Image;
 import project.models.UserEntity;
+import project.repository.BlobReferenceRepository;
 import project.repository.ImageRepository;
 import project.repository.UserRepository;
 import project.utils.DefaultImageUtil;
+import project.utils.ImageFormat;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.zip.DataFormatException;
-import java.util.zip.Deflater;
 import java.util.zip.Inflater;
 
 @Service
 public class imageServiceImpl implements ImageServiceInter{
 
+    private static final Logger logger = LoggerFactory.getLogger(imageServiceImpl.class);
+
+    static final String AVATAR_NAMESPACE = "avatars";
+    private static final String DEFAULT_IMAGE_NAME = "default-profile.jpg";
+    private static final int MIGRATION_BATCH_SIZE = 100;
+    private static final String UNSUPPORTED_IMAGE = "Unsupported image type. Allowed formats: JPEG, PNG, GIF";
 
     @Autowired
     private UserRepository userRepository;
     @Autowired
     private ImageRepository imageRepository;
+    @Autowired
+    private ImageContentStore imageContentStore;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private BlobReferenceRepository blobReferenceRepository;
+    @Autowired
+    private ProfileImageCache profileImageCache;
+
+    // Every new user starts with this avatar, so after the first registration it only gains references
+    private volatile ImageContentStore.StoredContent defaultAvatar;
 
     @Override
     public ResponseEntity<String> uploadImage(MultipartFile file, long idUser) throws IOException {
@@ -38,17 +64,18 @@ public class imageServiceImpl implements ImageServiceInter{
             if (user.getUserImage() != null) {
                 // Update existing image
                 img = user.getUserImage();
-                img.setName(file.getOriginalFilename());
-                img.setPicByte(compressBytes(file.getBytes()));
             } else {
                 // Create new image if none exists
                 img = new Image();
-                img.setName(file.getOriginalFilename());
-                img.setPicByte(compressBytes(file.getBytes()));
                 img.setUserEntity(user);
             }
-
-            imageRepository.save(img);
+            byte[] content = file.getBytes();
+            Optional<ImageFormat> format = ImageFormat.detect(content);
+            if (format.isEmpty()) {
+                return ResponseEntity.badRequest().body(UNSUPPORTED_IMAGE);
+            }
+            saveContent(img, file.getOriginalFilename(), format.get(), content);
+            profileImageCache.evict(user.getId());
             return ResponseEntity.ok("Image " + img.getName() + " saved for user with ID: " + user.getId());
         } else {
             return ResponseEntity.notFound().build();
@@ -61,9 +88,7 @@ public class imageServiceImpl implements ImageServiceInter{
     public ResponseEntity<Image> getImage(Long idUser) { // Change from long to Long
         Optional<Image> retrivedImage = imageRepository.findByUserEntityId(idUser);
         if(retrivedImage.isPresent()) {
-            Image img = retrivedImage.get();
-            img.setPicByte(decompressBytes(img.getPicByte()));
-            return ResponseEntity.ok(img);
+            return ResponseEntity.ok(retrivedImage.get());
         } else {
             return ResponseEntity.notFound().build();
         }
@@ -77,9 +102,17 @@ public class imageServiceImpl implements ImageServiceInter{
         {
             UserEntity user= userOptional.get();
             Image image=user.getUserImage();
-            image.setName(file.getOriginalFilename());
-            image.setPicByte(compressBytes(file.getBytes()) );
-            imageRepository.save(image);
+            if (image == null) {
+                image = new Image();
+                image.setUserEntity(user);
+            }
+            byte[] content = file.getBytes();
+            Optional<ImageFormat> format = ImageFormat.detect(content);
+            if (format.isEmpty()) {
+                return ResponseEntity.badRequest().body(UNSUPPORTED_IMAGE);
+            }
+            saveContent(image, file.getOriginalFilename(), format.get(), content);
+            profileImageCache.evict(user.getId());
             return ResponseEntity.ok("Updated");
 
         } else {
@@ -97,6 +130,8 @@ public class imageServiceImpl implements ImageServiceInter{
             if(image!=null)
             {
                 imageRepository.delete(image);
+                imageContentStore.release(image.getStorageKey());
+                profileImageCache.evict(user.getId());
                 return ResponseEntity.ok("Image deleted of user :"+idUser);
             }
             else {
@@ -110,29 +145,86 @@ public class imageServiceImpl implements ImageServiceInter{
 
 
 
-    // compress the image bytes before storing it in the database
-    public static byte[] compressBytes(byte[] data) {
-        Deflater deflater = new Deflater();
-        deflater.setInput(data);
-        deflater.finish();
+    // Points the image at new content and releases the reference on what it showed before
+    private void saveContent(Image img, String name, ImageFormat format, byte[] content) throws IOException {
+        String previousKey = img.getStorageKey();
+        store(img, name, format, content);
+        try {
+            imageRepository.save(img);
+        } catch (RuntimeException e) {
+            imageContentStore.release(img.getStorageKey());
+            throw e;
+        }
+        imageContentStore.release(previousKey);
+    }
 
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(data.length);
-        byte[] buffer = new byte[1024];
-        while (!deflater.finished()) {
-            int count = deflater.deflate(buffer);
-            outputStream.write(buffer, 0, count);
+    // Bytes are stored as uploaded, content-addressed and reference counted, under the detected format's extension
+    private void store(Image img, String name, ImageFormat format, byte[] content) throws IOException {
+        ImageContentStore.StoredContent stored = imageContentStore.store(AVATAR_NAMESPACE, format.getExtension(), content);
+        setContent(img, name, format.getContentType(), stored);
+    }
+
+    private static void setContent(Image img, String name, String contentType, ImageContentStore.StoredContent stored) {
+        img.setName(name);
+        img.setStorageKey(stored.getStorageKey());
+        img.setContentHash(stored.getContentHash());
+        img.setContentType(contentType);
+    }
+
+    public void deleteImageOf(UserEntity user) {
+        if (user.getUserImage() != null) {
+            imageContentStore.release(user.getUserImage().getStorageKey());
         }
+        imageRepository.deleteByUserEntityId(user.getId());
+        profileImageCache.evict(user.getId());
+    }
+
+    // Moves images still held in the legacy picByte column (deflated) into the blob store, one batch at a time
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateLegacyImages() {
+        long start = System.currentTimeMillis();
+        countExistingReferences();
+        int migrated = 0;
+        List<Map<String, Object>> rows;
         try {
-            outputStream.close();
+            while (!(rows = jdbcTemplate.queryForList("SELECT id, name, pic_byte FROM image " +
+                    "WHERE storage_key IS NULL AND pic_byte IS NOT NULL LIMIT " + MIGRATION_BATCH_SIZE)).isEmpty()) {
+                for (Map<String, Object> row : rows) {
+                    Image img = new Image();
+                    String name = (String) row.get("name");
+                    byte[] content = decompressBytes((byte[]) row.get("pic_byte"));
+                    // Legacy images were always served as JPEG
+                    store(img, name, ImageFormat.detect(content).orElse(ImageFormat.JPEG), content);
+                    jdbcTemplate.update("UPDATE image SET storage_key = ?, content_hash = ?, content_type = ?, pic_byte = NULL WHERE id = ?",
+                            img.getStorageKey(), img.getContentHash(), img.getContentType(), row.get("id"));
+                }
+                migrated += rows.size();
+            }
+        } catch (BadSqlGrammarException e) {
+            // No legacy column on databases created after the move
+            return;
         } catch (IOException e) {
-            e.printStackTrace();
+            logger.error("Could not migrate legacy profile images", e);
+            return;
         }
-        System.out.println("Compressed Image Byte Size - " + outputStream.toByteArray().length);
+        if (migrated > 0) {
+            logger.info("Moved {} profile images into the blob store in {} ms", migrated, System.currentTimeMillis() - start);
+        }
+    }
 
-        return outputStream.toByteArray();
+    // Images stored before reference counting get their references from the rows that point at them
+    private void countExistingReferences() {
+        if (blobReferenceRepository.count() == 0) {
+            int keys = jdbcTemplate.update("INSERT INTO blob_references (storage_key, content_hash, ref_count, updated_at) " +
+                    "SELECT storage_key, MAX(content_hash), COUNT(*), NOW() FROM image " +
+                    "WHERE storage_key IS NOT NULL AND content_hash IS NOT NULL GROUP BY storage_key");
+            if (keys > 0) {
+                logger.info("Counted references of {} stored profile images", keys);
+            }
+        }
     }
 
-    // uncompress the image bytes before returning it to the angular application
+    // Inflates image bytes stored by the legacy picByte column
     public static byte[] decompressBytes(byte[] data) {
         Inflater inflater = new Inflater();
         inflater.setInput(data);
@@ -150,11 +242,19 @@ public class imageServiceImpl implements ImageServiceInter{
         return outputStream.toByteArray();
     }
 
+    // Normally just a row and a reference count increment; the default image's bytes are written once
     public Image createDefaultImage(UserEntity user) {
         Image img = new Image();
-        byte[] defaultImageBytes = DefaultImageUtil.getDefaultImage();
-        img.setName("default-profile.jpg");
-        img.setPicByte(compressBytes(defaultImageBytes));
+        ImageContentStore.StoredContent avatar = defaultAvatar;
+        if (avatar == null || !imageContentStore.addReference(avatar)) {
+            try {
+                avatar = imageContentStore.store(AVATAR_NAMESPACE, ".jpg", DefaultImageUtil.getDefaultImage());
+            } catch (IOException e) {
+                throw new RuntimeException("Could not store default image", e);
+            }
+            defaultAvatar = avatar;
+        }
+        setContent(img, DEFAULT_IMAGE_NAME, MediaType.IMAGE_JPEG_VALUE, avatar);
         img.setUserEntity(user);
         return imageRepository.save(img);
     }
@@ -163,5 +263,4 @@ public class imageServiceImpl implements ImageServiceInter{
     public boolean hasImage(UserEntity user) {
         return user.getUserImage() != null;
     }
-
 }
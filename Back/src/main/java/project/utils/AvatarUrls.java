@@ -0,0 +1,25 @@
+package project.utils;
+
+import project.models.Image;
+
+// Avatar URLs served by /image/get/{idUser}. The ?v= parameter is a prefix of the image's content hash,
+// so the URL changes whenever the image does and responses for it can be cached for good.
+public final class AvatarUrls {
+
+    private static final String PATH = "/image/get/";
+    private static final int VERSION_LENGTH = 16;
+
+    private AvatarUrls() {
+    }
+
+    public static String of(Long userId, Image image) {
+        if (userId == null || image == null || image.getContentHash() == null) {
+            return null;
+        }
+        return PATH + userId + "?v=" + image.getContentHash().substring(0, VERSION_LENGTH);
+    }
+
+    public static boolean isCurrentVersion(String contentHash, String version) {
+        return version != null && version.length() == VERSION_LENGTH && contentHash.startsWith(version);
+    }
+}
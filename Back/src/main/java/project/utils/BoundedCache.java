@@ -0,0 +1,237 @@
+package project.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.function.UnaryOperator;
+
+// Size- and TTL-bounded read-through cache. Keys are spread over independently locked LRU
+// segments to keep hot reads from serializing on one monitor. Each segment counts invalidations
+// so that a load racing with an invalidation never writes its stale result back. The size bound
+// is an entry count by default, or a total weight (e.g. bytes) when a weigher is given.
+public class BoundedCache<K, V> {
+
+    private static final int SEGMENTS = 16;
+
+    private final String name;
+    private final long ttlNanos;
+    private final Segment<K, V>[] segments;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private static class Entry<V> {
+        final V value;
+        final long expiresAt;
+
+        Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static class Segment<K, V> {
+        final LinkedHashMap<K, Entry<V>> map = new LinkedHashMap<>(16, 0.75f, true);
+        final long maxWeight;
+        final ToIntFunction<V> weigher;
+        final LongAdder evictions;
+        long weight = 0;
+        long invalidations = 0;
+
+        Segment(long maxWeight, ToIntFunction<V> weigher, LongAdder evictions) {
+            this.maxWeight = maxWeight;
+            this.weigher = weigher;
+            this.evictions = evictions;
+        }
+
+        Entry<V> get(K key) {
+            return map.get(key);
+        }
+
+        // Evicts least recently used entries until the segment is back within its weight
+        void put(K key, Entry<V> entry) {
+            weight += weigher.applyAsInt(entry.value);
+            Entry<V> previous = map.put(key, entry);
+            if (previous != null) {
+                weight -= weigher.applyAsInt(previous.value);
+            }
+            Iterator<Entry<V>> eldest = map.values().iterator();
+            while (weight > maxWeight && map.size() > 1 && eldest.hasNext()) {
+                Entry<V> evicted = eldest.next();
+                eldest.remove();
+                weight -= weigher.applyAsInt(evicted.value);
+                evictions.increment();
+            }
+        }
+
+        void remove(K key) {
+            Entry<V> removed = map.remove(key);
+            if (removed != null) {
+                weight -= weigher.applyAsInt(removed.value);
+            }
+        }
+
+        void clear() {
+            map.clear();
+            weight = 0;
+        }
+    }
+
+    public BoundedCache(String name, int maxSize, long ttlSeconds) {
+        this(name, maxSize, ttlSeconds, value -> 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    public BoundedCache(String name, long maxWeight, long ttlSeconds, ToIntFunction<V> weigher) {
+        this.name = name;
+        this.ttlNanos = ttlSeconds * 1_000_000_000L;
+        this.segments = new Segment[SEGMENTS];
+        long perSegment = Math.max(1, maxWeight / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment<>(perSegment, weigher, evictions);
+        }
+    }
+
+    public V get(K key, Function<K, V> loader) {
+        Segment<K, V> segment = segmentFor(key);
+        long invalidationsBeforeLoad;
+        synchronized (segment) {
+            Entry<V> entry = segment.get(key);
+            if (entry != null && entry.expiresAt - System.nanoTime() > 0) {
+                hits.increment();
+                return entry.value;
+            }
+            if (entry != null) {
+                segment.remove(key);
+            }
+            invalidationsBeforeLoad = segment.invalidations;
+        }
+
+        misses.increment();
+        V value = loader.apply(key);
+        if (value == null) {
+            return null;
+        }
+
+        synchronized (segment) {
+            if (segment.invalidations == invalidationsBeforeLoad) {
+                segment.put(key, new Entry<>(value, System.nanoTime() + ttlNanos));
+            }
+        }
+        return value;
+    }
+
+    // Bulk form of get: the keys that are not cached are handed to the loader in one call.
+    // Keys the loader does not return are left out of the result.
+    public Map<K, V> getAll(Collection<K> keys, Function<List<K>, Map<K, V>> loader) {
+        Map<K, V> found = new HashMap<>();
+        List<K> missing = new ArrayList<>();
+        Map<K, Long> invalidationsBeforeLoad = new HashMap<>();
+        for (K key : keys) {
+            Segment<K, V> segment = segmentFor(key);
+            synchronized (segment) {
+                Entry<V> entry = segment.get(key);
+                if (entry != null && entry.expiresAt - System.nanoTime() > 0) {
+                    hits.increment();
+                    found.put(key, entry.value);
+                    continue;
+                }
+                if (entry != null) {
+                    segment.remove(key);
+                }
+                if (!invalidationsBeforeLoad.containsKey(key)) {
+                    invalidationsBeforeLoad.put(key, segment.invalidations);
+                    missing.add(key);
+                }
+            }
+        }
+        if (missing.isEmpty()) {
+            return found;
+        }
+
+        misses.add(missing.size());
+        Map<K, V> loaded = loader.apply(missing);
+        for (K key : missing) {
+            V value = loaded.get(key);
+            if (value == null) {
+                continue;
+            }
+            found.put(key, value);
+            Segment<K, V> segment = segmentFor(key);
+            synchronized (segment) {
+                if (segment.invalidations == invalidationsBeforeLoad.get(key)) {
+                    segment.put(key, new Entry<>(value, System.nanoTime() + ttlNanos));
+                }
+            }
+        }
+        return found;
+    }
+
+    // Applies an in-place change to a cached value; absent keys are left to the next load.
+    // Counts as an invalidation so a load that started before the change cannot overwrite it.
+    public void update(K key, UnaryOperator<V> change) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            Entry<V> entry = segment.get(key);
+            if (entry != null) {
+                segment.put(key, new Entry<>(change.apply(entry.value), entry.expiresAt));
+            }
+            segment.invalidations++;
+        }
+    }
+
+    public void invalidate(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            segment.remove(key);
+            segment.invalidations++;
+        }
+    }
+
+    public void invalidateAll() {
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+                segment.invalidations++;
+            }
+        }
+    }
+
+    public Map<String, Object> stats() {
+        long size = 0;
+        long weight = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                size += segment.map.size();
+                weight += segment.weight;
+            }
+        }
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long requests = hitCount + missCount;
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("name", name);
+        stats.put("size", size);
+        stats.put("weight", weight);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("evictions", evictions.sum());
+        stats.put("hitRate", requests == 0 ? 0.0 : (double) hitCount / requests);
+        return stats;
+    }
+
+    private Segment<K, V> segmentFor(K key) {
+        int hash = key.hashCode();
+        hash ^= (hash >>> 16);
+        return segments[hash & (SEGMENTS - 1)];
+    }
+}
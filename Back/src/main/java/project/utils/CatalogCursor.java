@@ -0,0 +1,70 @@
+package project.utils;
+
+import java.time.LocalDate;
+
+// Continuation token for the keyset-paginated course catalog
+public final class CatalogCursor extends KeysetCursor<CatalogCursor.Sort> {
+
+    public enum Sort {
+        RATING, STUDENTS, RECENT, NEWEST;
+
+        public static Sort fromParam(String sortBy) {
+            return sortParam(Sort.class, sortBy, RATING);
+        }
+    }
+
+    private CatalogCursor(Sort sort, Object key, long lastId) {
+        super(sort, key, lastId);
+    }
+
+    // Position before the first row: sentinels larger than any stored value
+    public static CatalogCursor start(Sort sort) {
+        switch (sort) {
+            case RATING:
+                return new CatalogCursor(sort, "6.0", Long.MAX_VALUE);
+            case STUDENTS:
+                return new CatalogCursor(sort, Integer.MAX_VALUE, Long.MAX_VALUE);
+            case RECENT:
+                return new CatalogCursor(sort, "9999-12-31", Long.MAX_VALUE);
+            default:
+                return new CatalogCursor(sort, "", Long.MAX_VALUE);
+        }
+    }
+
+    public static CatalogCursor after(Sort sort, Object key, long lastId) {
+        return new CatalogCursor(sort, key, lastId);
+    }
+
+    public static CatalogCursor decode(String token, Sort expectedSort) {
+        return decode(token, expectedSort, CatalogCursor::new);
+    }
+
+    @Override
+    protected void validateKey() {
+        switch (getSort()) {
+            case RATING:
+                ratingKey();
+                break;
+            case STUDENTS:
+                studentsKey();
+                break;
+            case RECENT:
+                recentKey();
+                break;
+            default:
+                break;
+        }
+    }
+
+    public double ratingKey() {
+        return Double.parseDouble(key());
+    }
+
+    public int studentsKey() {
+        return Integer.parseInt(key());
+    }
+
+    public LocalDate recentKey() {
+        return LocalDate.parse(key());
+    }
+}
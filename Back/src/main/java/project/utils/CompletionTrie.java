@@ -0,0 +1,167 @@
+package project.utils;
+
+import java.util.Arrays;
+
+// Immutable radix trie for prefix completion. Edge labels point into the key strings instead of
+// being copied, nodes live in parallel int arrays, and every node stores the ids of its K best
+// entries, so a lookup is a walk down the prefix followed by a copy of at most K ints.
+public final class CompletionTrie {
+
+    private static final int ROOT = 0;
+
+    private final String[] keys;
+    private final double[] entryWeights;
+    private final int k;
+
+    private int nodeCount = 0;
+    private int[] labelKey;
+    private int[] labelStart;
+    private int[] labelEnd;
+    private int[] firstChild;
+    private int[] nextSibling;
+    private int[] top; // nodeCount * k entry ids, padded with -1
+
+    // keys must be sorted; keyEntries[i] is the entry that keys[i] completes to
+    public CompletionTrie(String[] keys, int[] keyEntries, double[] entryWeights, int k) {
+        this.keys = keys;
+        this.entryWeights = entryWeights;
+        this.k = k;
+
+        int capacity = Math.max(16, keys.length + 1);
+        labelKey = new int[capacity];
+        labelStart = new int[capacity];
+        labelEnd = new int[capacity];
+        firstChild = new int[capacity];
+        nextSibling = new int[capacity];
+        top = new int[capacity * k];
+
+        int root = newNode(0, 0, 0);
+        if (keys.length > 0) {
+            buildChildren(root, 0, keys.length, 0, keyEntries);
+        }
+    }
+
+    public static CompletionTrie empty(int k) {
+        return new CompletionTrie(new String[0], new int[0], new double[0], k);
+    }
+
+    // Writes up to out.length entry ids, best first, and returns how many were written
+    public int complete(String prefix, int[] out) {
+        int node = ROOT;
+        int position = 0;
+        while (position < prefix.length()) {
+            char next = prefix.charAt(position);
+            int child = firstChild[node];
+            while (child >= 0 && keys[labelKey[child]].charAt(labelStart[child]) != next) {
+                child = nextSibling[child];
+            }
+            if (child < 0) {
+                return 0;
+            }
+            int length = Math.min(labelEnd[child] - labelStart[child], prefix.length() - position);
+            if (!keys[labelKey[child]].regionMatches(labelStart[child], prefix, position, length)) {
+                return 0;
+            }
+            position += length;
+            node = child;
+        }
+
+        int count = 0;
+        int base = node * k;
+        while (count < k && count < out.length && top[base + count] >= 0) {
+            out[count] = top[base + count];
+            count++;
+        }
+        return count;
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    // Builds the children of parent from keys[lo, hi), which all share their first depth characters
+    private void buildChildren(int parent, int lo, int hi, int depth, int[] keyEntries) {
+        int i = lo;
+        // Keys ending exactly at this node sort first
+        while (i < hi && keys[i].length() == depth) {
+            offer(parent, keyEntries[i]);
+            i++;
+        }
+
+        int lastChild = -1;
+        while (i < hi) {
+            char c = keys[i].charAt(depth);
+            int j = i + 1;
+            while (j < hi && keys[j].charAt(depth) == c) {
+                j++;
+            }
+            int end = depth + commonPrefix(keys[i], keys[j - 1], depth);
+            int child = newNode(i, depth, end);
+            if (lastChild < 0) {
+                firstChild[parent] = child;
+            } else {
+                nextSibling[lastChild] = child;
+            }
+            lastChild = child;
+
+            buildChildren(child, i, j, end, keyEntries);
+            int base = child * k;
+            for (int t = 0; t < k && top[base + t] >= 0; t++) {
+                offer(parent, top[base + t]);
+            }
+            i = j;
+        }
+    }
+
+    private static int commonPrefix(String a, String b, int from) {
+        int max = Math.min(a.length(), b.length());
+        int i = from;
+        while (i < max && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        return i - from;
+    }
+
+    private int newNode(int key, int start, int end) {
+        if (nodeCount == labelKey.length) {
+            int capacity = labelKey.length * 2;
+            labelKey = Arrays.copyOf(labelKey, capacity);
+            labelStart = Arrays.copyOf(labelStart, capacity);
+            labelEnd = Arrays.copyOf(labelEnd, capacity);
+            firstChild = Arrays.copyOf(firstChild, capacity);
+            nextSibling = Arrays.copyOf(nextSibling, capacity);
+            top = Arrays.copyOf(top, capacity * k);
+        }
+        int node = nodeCount++;
+        labelKey[node] = key;
+        labelStart[node] = start;
+        labelEnd[node] = end;
+        firstChild[node] = -1;
+        nextSibling[node] = -1;
+        Arrays.fill(top, node * k, node * k + k, -1);
+        return node;
+    }
+
+    // Insertion into the node's sorted top-K list, ignoring entries that are already present
+    private void offer(int node, int entry) {
+        int base = node * k;
+        double weight = entryWeights[entry];
+        int position = -1;
+        for (int t = 0; t < k; t++) {
+            int current = top[base + t];
+            if (current == entry) {
+                return;
+            }
+            if (current < 0 || weight > entryWeights[current]) {
+                position = t;
+                break;
+            }
+        }
+        if (position < 0) {
+            return;
+        }
+        // Entries are sorted by weight, so an existing copy of entry would have been seen above
+        System.arraycopy(top, base + position, top, base + position + 1, k - 1 - position);
+        top[base + position] = entry;
+    }
+}
@@ -0,0 +1,77 @@
+package project.utils;
+
+import java.util.Arrays;
+
+// Count-Min sketch over long keys: a fixed depth x width grid of counters where each row hashes the
+// key independently and the estimate is the smallest counter. Estimates never undercount; with
+// width w the overcount is at most about 2N/w for N total increments with high probability.
+// Not thread-safe; callers synchronize.
+public final class CountMinSketch {
+
+    private static final long[] SEEDS = {
+            0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L, 0xFF51AFD7ED558CCDL
+    };
+
+    private final int depth;
+    private final int width;
+    private final int mask;
+    private final int[] counts; // row-major, depth * width
+
+    // width is rounded up to a power of two
+    public CountMinSketch(int width, int depth) {
+        if (depth < 1 || depth > SEEDS.length) {
+            throw new IllegalArgumentException("depth must be between 1 and " + SEEDS.length);
+        }
+        this.depth = depth;
+        this.width = Integer.highestOneBit(Math.max(2, width - 1)) << 1;
+        this.mask = this.width - 1;
+        this.counts = new int[this.depth * this.width];
+    }
+
+    public void add(long key, int count) {
+        for (int row = 0; row < depth; row++) {
+            counts[row * width + slot(key, row)] += count;
+        }
+    }
+
+    public int estimate(long key) {
+        int min = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, counts[row * width + slot(key, row)]);
+        }
+        return min;
+    }
+
+    // Sketches with the same shape are linear, so windows can be kept as a running sum of buckets
+    public void addAll(CountMinSketch other) {
+        checkShape(other);
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+    }
+
+    public void subtractAll(CountMinSketch other) {
+        checkShape(other);
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] -= other.counts[i];
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(counts, 0);
+    }
+
+    private int slot(long key, int row) {
+        long hash = (key + 1) * SEEDS[row];
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 29;
+        return (int) hash & mask;
+    }
+
+    private void checkShape(CountMinSketch other) {
+        if (other.depth != depth || other.width != width) {
+            throw new IllegalArgumentException("Sketch dimensions do not match");
+        }
+    }
+}
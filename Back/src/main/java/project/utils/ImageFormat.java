@@ -0,0 +1,78 @@
+package project.utils;
+
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Optional;
+
+// Image formats accepted for upload, recognised from their leading bytes; all of them can be decoded
+// and re-encoded by the JDK's ImageIO, which the rendition pipeline relies on. The stored extension and
+// the served content type always come from the detected format, never from the client's file name or
+// declared type, so an upload cannot be stored or served as markup (e.g. SVG or HTML).
+public enum ImageFormat {
+    JPEG(".jpg", MediaType.IMAGE_JPEG_VALUE),
+    PNG(".png", MediaType.IMAGE_PNG_VALUE),
+    GIF(".gif", MediaType.IMAGE_GIF_VALUE);
+
+    // Long enough for every signature below
+    public static final int SIGNATURE_LENGTH = 8;
+
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    private final String extension;
+    private final String contentType;
+
+    ImageFormat(String extension, String contentType) {
+        this.extension = extension;
+        this.contentType = contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public static Optional<ImageFormat> detect(byte[] content) {
+        if (content == null) {
+            return Optional.empty();
+        }
+        if (content.length >= 3 && (content[0] & 0xFF) == 0xFF && (content[1] & 0xFF) == 0xD8 && (content[2] & 0xFF) == 0xFF) {
+            return Optional.of(JPEG);
+        }
+        if (startsWith(content, PNG_SIGNATURE)) {
+            return Optional.of(PNG);
+        }
+        if (startsWith(content, ascii("GIF87a")) || startsWith(content, ascii("GIF89a"))) {
+            return Optional.of(GIF);
+        }
+        return Optional.empty();
+    }
+
+    // Reads only the signature; the caller opens a fresh stream for the content
+    public static Optional<ImageFormat> detect(InputStream in) throws IOException {
+        return detect(in.readNBytes(SIGNATURE_LENGTH));
+    }
+
+    public static Optional<ImageFormat> fromContentType(String contentType) {
+        for (ImageFormat format : values()) {
+            if (format.contentType.equalsIgnoreCase(contentType)) {
+                return Optional.of(format);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static boolean startsWith(byte[] content, byte[] prefix) {
+        return content.length >= prefix.length && Arrays.equals(content, 0, prefix.length, prefix, 0, prefix.length);
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,54 @@
+package project.utils;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Fixed downscaled versions of an uploaded image. A rendition is stored next to its original, named
+// <original>@<rendition>.<jpg|png>, so its URL can be derived from the original's URL alone.
+public enum ImageRendition {
+    THUMB(320),
+    CARD(640),
+    HERO(1280);
+
+    private static final String STORED_PREFIX = "/uploads/";
+
+    private final int maxWidth;
+
+    ImageRendition(int maxWidth) {
+        this.maxWidth = maxWidth;
+    }
+
+    public int getMaxWidth() {
+        return maxWidth;
+    }
+
+    public String key() {
+        return name().toLowerCase();
+    }
+
+    public String urlOf(String imageUrl) {
+        int slash = imageUrl.lastIndexOf('/');
+        int dot = imageUrl.lastIndexOf('.');
+        String base = dot > slash ? imageUrl.substring(0, dot) : imageUrl;
+        return base + "@" + key() + extensionFor(imageUrl);
+    }
+
+    // Renditions keep transparency for PNG and GIF sources and are JPEG otherwise
+    public static String extensionFor(String imageUrl) {
+        String lower = imageUrl.toLowerCase();
+        return lower.endsWith(".png") || lower.endsWith(".gif") ? ".png" : ".jpg";
+    }
+
+    // Rendition key -> URL, or null for images that were not stored by the BlobStore
+    public static Map<String, String> urlsFor(String imageUrl) {
+        if (imageUrl == null || !imageUrl.startsWith(STORED_PREFIX)) {
+            return null;
+        }
+        Map<String, String> urls = new LinkedHashMap<>();
+        for (ImageRendition rendition : values()) {
+            urls.put(rendition.key(), rendition.urlOf(imageUrl));
+        }
+        return Collections.unmodifiableMap(urls);
+    }
+}
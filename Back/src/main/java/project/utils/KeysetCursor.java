@@ -0,0 +1,80 @@
+package project.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Opaque continuation token for keyset-paginated feeds: the sort order plus the (sort key, id) of the
+// last row returned, framed as URL-safe base64 of "v1|SORT|key|id". Subclasses define the sort orders,
+// their start sentinels and how each sort key is parsed.
+public abstract class KeysetCursor<S extends Enum<S>> {
+
+    private static final String VERSION = "v1";
+    private static final String SEPARATOR = "|";
+
+    @FunctionalInterface
+    protected interface Factory<S extends Enum<S>, C extends KeysetCursor<S>> {
+        C create(S sort, String key, long lastId);
+    }
+
+    private final S sort;
+    private final String key;
+    private final long lastId;
+
+    protected KeysetCursor(S sort, Object key, long lastId) {
+        this.sort = sort;
+        this.key = key != null ? key.toString() : "";
+        this.lastId = lastId;
+    }
+
+    protected static <S extends Enum<S>> S sortParam(Class<S> sortType, String sortBy, S defaultSort) {
+        if (sortBy == null || sortBy.isBlank()) {
+            return defaultSort;
+        }
+        try {
+            return Enum.valueOf(sortType, sortBy.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported sort: " + sortBy);
+        }
+    }
+
+    protected static <S extends Enum<S>, C extends KeysetCursor<S>> C decode(String token, S expectedSort,
+                                                                            Factory<S, C> factory) {
+        C cursor;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length != 4 || !VERSION.equals(parts[0])) {
+                throw new IllegalArgumentException("Unknown cursor format");
+            }
+            S sort = Enum.valueOf(expectedSort.getDeclaringClass(), parts[1]);
+            cursor = factory.create(sort, parts[2], Long.parseLong(parts[3]));
+            cursor.validateKey();
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+        if (cursor.getSort() != expectedSort) {
+            throw new IllegalArgumentException("Cursor does not match sort order " + expectedSort);
+        }
+        return cursor;
+    }
+
+    // Throws when the sort key does not parse for this cursor's sort order
+    protected abstract void validateKey();
+
+    public String encode() {
+        String raw = VERSION + SEPARATOR + sort.name() + SEPARATOR + key + SEPARATOR + lastId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public S getSort() {
+        return sort;
+    }
+
+    public long getLastId() {
+        return lastId;
+    }
+
+    protected String key() {
+        return key;
+    }
+}
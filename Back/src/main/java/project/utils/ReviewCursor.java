@@ -0,0 +1,52 @@
+package project.utils;
+
+import java.time.LocalDateTime;
+
+// Continuation token for the keyset-paginated review feed of a course
+public final class ReviewCursor extends KeysetCursor<ReviewCursor.Sort> {
+
+    public enum Sort {
+        LATEST, RATING;
+
+        public static Sort fromParam(String sortBy) {
+            return sortParam(Sort.class, sortBy, LATEST);
+        }
+    }
+
+    private ReviewCursor(Sort sort, Object key, long lastId) {
+        super(sort, key, lastId);
+    }
+
+    // Position before the first review: sentinels larger than any stored value
+    public static ReviewCursor start(Sort sort) {
+        if (sort == Sort.RATING) {
+            return new ReviewCursor(sort, "6.0", Long.MAX_VALUE);
+        }
+        return new ReviewCursor(sort, LocalDateTime.of(9999, 12, 31, 23, 59, 59), Long.MAX_VALUE);
+    }
+
+    public static ReviewCursor after(Sort sort, Object key, long lastId) {
+        return new ReviewCursor(sort, key, lastId);
+    }
+
+    public static ReviewCursor decode(String token, Sort expectedSort) {
+        return decode(token, expectedSort, ReviewCursor::new);
+    }
+
+    @Override
+    protected void validateKey() {
+        if (getSort() == Sort.RATING) {
+            ratingKey();
+        } else {
+            createdAtKey();
+        }
+    }
+
+    public double ratingKey() {
+        return Double.parseDouble(key());
+    }
+
+    public LocalDateTime createdAtKey() {
+        return LocalDateTime.parse(key());
+    }
+}
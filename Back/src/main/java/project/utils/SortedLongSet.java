@@ -0,0 +1,71 @@
+package project.utils;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+// Immutable set of ids backed by a sorted long[]. Membership is a binary search with no boxing;
+// updates copy the array, which is cheap for the small per-user sets this is used for.
+public final class SortedLongSet {
+
+    private static final SortedLongSet EMPTY = new SortedLongSet(new long[0]);
+
+    private final long[] values;
+
+    private SortedLongSet(long[] values) {
+        this.values = values;
+    }
+
+    public static SortedLongSet empty() {
+        return EMPTY;
+    }
+
+    public static SortedLongSet of(Collection<Long> ids) {
+        long[] values = new long[ids.size()];
+        int size = 0;
+        for (Long id : ids) {
+            if (id != null) {
+                values[size++] = id;
+            }
+        }
+        Arrays.sort(values, 0, size);
+        int unique = 0;
+        for (int i = 0; i < size; i++) {
+            if (unique == 0 || values[unique - 1] != values[i]) {
+                values[unique++] = values[i];
+            }
+        }
+        return unique == 0 ? EMPTY : new SortedLongSet(Arrays.copyOf(values, unique));
+    }
+
+    public boolean contains(Long id) {
+        return id != null && Arrays.binarySearch(values, id) >= 0;
+    }
+
+    public SortedLongSet with(long id) {
+        int position = Arrays.binarySearch(values, id);
+        if (position >= 0) {
+            return this;
+        }
+        int insertAt = -position - 1;
+        long[] updated = new long[values.length + 1];
+        System.arraycopy(values, 0, updated, 0, insertAt);
+        updated[insertAt] = id;
+        System.arraycopy(values, insertAt, updated, insertAt + 1, values.length - insertAt);
+        return new SortedLongSet(updated);
+    }
+
+    public SortedLongSet without(long id) {
+        int position = Arrays.binarySearch(values, id);
+        if (position < 0) {
+            return this;
+        }
+        long[] updated = new long[values.length - 1];
+        System.arraycopy(values, 0, updated, 0, position);
+        System.arraycopy(values, position + 1, updated, position, values.length - position - 1);
+        return new SortedLongSet(updated);
+    }
+
+    public int size() {
+        return values.length;
+    }
+}
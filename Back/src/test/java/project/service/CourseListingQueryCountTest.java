@@ -0,0 +1,156 @@
+package project.service;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import project.controllers.InstructorProfileController;
+import project.dto.CourseDTO;
+import project.models.*;
+import project.repository.BookmarkRepository;
+import project.repository.CourseRepository;
+import project.repository.InstructorRepository;
+import project.repository.UserRepository;
+
+import javax.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Course listings are DTO projections: the statement count must not grow with the number of courses
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:listing;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.show-sql=false"
+})
+class CourseListingQueryCountTest {
+
+    private static final int COURSES = 12;
+
+    // Relies on MySQL's information_schema; the H2 schema is created with the constraint already in place
+    @MockBean
+    private EnrollmentUniquenessMigration enrollmentUniquenessMigration;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private InstructorRepository instructorRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private BookmarkRepository bookmarkRepository;
+
+    @Autowired
+    private CourseService courseService;
+
+    @Autowired
+    private BookmarkService bookmarkService;
+
+    @Autowired
+    private InstructorProfileController instructorProfileController;
+
+    @Autowired
+    private CourseCache courseCache;
+
+    @Autowired
+    private UserRelationCache userRelationCache;
+
+    private Long instructorId;
+    private UserEntity student;
+
+    @BeforeEach
+    void seed() {
+        bookmarkRepository.deleteAll();
+        courseRepository.deleteAll();
+        instructorRepository.deleteAll();
+        userRepository.deleteAll();
+        courseCache.evictAll();
+        userRelationCache.evict("student");
+
+        Instructor instructor = new Instructor();
+        instructor.setUser(userRepository.save(user("teacher")));
+        instructor.setStatus(InstructorStatus.APPROVED);
+        instructorId = instructorRepository.save(instructor).getId();
+        student = userRepository.save(user("student"));
+
+        for (int i = 0; i < COURSES; i++) {
+            Course course = new Course();
+            course.setTitle("Course " + i);
+            course.setPrice(BigDecimal.TEN);
+            course.setPricingType(PricingType.PAID);
+            course.setLevel(CourseLevel.BEGINNER);
+            course.setLanguage(CourseLanguage.ENGLISH);
+            course.setInstructor(instructor);
+            course = courseRepository.save(course);
+
+            Bookmark bookmark = new Bookmark();
+            bookmark.setUser(student);
+            bookmark.setCourse(course);
+            bookmark.setCreatedAt(LocalDateTime.now());
+            bookmarkRepository.save(bookmark);
+        }
+    }
+
+    @Test
+    void coursesByInstructorIdIsOneQueryThenCached() {
+        assertEquals(COURSES, statements(1, () -> courseService.getCoursesByInstructorId(instructorId)).size());
+        statements(0, () -> courseService.getCoursesByInstructorId(instructorId));
+    }
+
+    @Test
+    void instructorCoursesAddsOnlyTheExistenceCheckAndRelationLookups() {
+        // Existence check + course projection
+        List<CourseDTO> courses = statements(2, () -> instructorProfileController.getInstructorCourses(instructorId, null).getBody());
+        assertEquals(COURSES, courses.size());
+
+        // Courses are cached now; the viewer's bookmarks, enrollments and follows are one query each, then cached
+        TestingAuthenticationToken viewer = new TestingAuthenticationToken(student.getUsername(), null);
+        courses = statements(4, () -> instructorProfileController.getInstructorCourses(instructorId, viewer).getBody());
+        assertTrue(courses.stream().allMatch(CourseDTO::isBookmarked));
+        statements(1, () -> instructorProfileController.getInstructorCourses(instructorId, viewer));
+    }
+
+    @Test
+    void bookmarkedCoursesIsTwoQueries() {
+        assertEquals(COURSES, statements(2, () -> bookmarkService.getBookmarkedCourses(student.getId())).size());
+    }
+
+    private <T> T statements(long expected, Supplier<T> call) {
+        Statistics statistics = statistics();
+        T result = call.get();
+        assertEquals(expected, statistics.getPrepareStatementCount());
+        return result;
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+
+    private static UserEntity user(String username) {
+        UserEntity user = new UserEntity();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword("secret");
+        return user;
+    }
+}
@@ -0,0 +1,39 @@
+package project.service;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImageDecoderTest {
+
+    private final ImageDecoder decoder = new ImageDecoder(50_000_000, 100_000, 2, 1000);
+
+    @Test
+    void subsamplesWideImagesToAboutTheTargetWidth() {
+        assertEquals(1, decoder.subsampling(300, 200, 320));
+        assertEquals(2, decoder.subsampling(400, 200, 200));
+    }
+
+    @Test
+    void boundsDecodedPixelsWhateverTheAspectRatio() {
+        int subsampling = decoder.subsampling(1000, 50_000, 1280);
+        long decoded = (long) ((1000 + subsampling - 1) / subsampling) * ((50_000 + subsampling - 1) / subsampling);
+        assertTrue(decoded <= 100_000, "decoded " + decoded + " pixels");
+    }
+
+    @Test
+    void decodesTallImageWithinBudget() throws IOException {
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(100, 20_000, BufferedImage.TYPE_INT_RGB), "png", png);
+
+        BufferedImage decoded = decoder.decode(new ByteArrayInputStream(png.toByteArray()), 1280);
+        assertTrue((long) decoded.getWidth() * decoded.getHeight() <= 100_000);
+    }
+}
@@ -0,0 +1,59 @@
+package project.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BoundedCacheTest {
+
+    // 16 segments of weight 10 each; small Integer keys 0 and 16 share a segment
+    private final BoundedCache<Integer, String> cache = new BoundedCache<>("test", 160, 60, String::length);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void evictsLeastRecentlyUsedByWeight() {
+        get(0, "aaaaaa");
+        get(16, "bbbbbb");
+        assertEquals(1L, cache.stats().get("evictions"));
+        assertEquals(6L, cache.stats().get("weight"));
+
+        get(16, "bbbbbb");
+        assertEquals(2, loads.get());
+        get(0, "aaaaaa");
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void keepsEntriesWithinWeight() {
+        get(0, "aaaa");
+        get(16, "bbbb");
+        get(0, "aaaa");
+        get(16, "bbbb");
+        assertEquals(2, loads.get());
+        assertEquals(0L, cache.stats().get("evictions"));
+        assertEquals(8L, cache.stats().get("weight"));
+    }
+
+    @Test
+    void keepsSingleOversizedEntry() {
+        get(0, "much longer than ten");
+        get(0, "much longer than ten");
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void invalidationReleasesWeight() {
+        get(0, "aaaaaa");
+        cache.invalidate(0);
+        assertEquals(0L, cache.stats().get("weight"));
+    }
+
+    private String get(int key, String value) {
+        return cache.get(key, k -> {
+            loads.incrementAndGet();
+            return value;
+        });
+    }
+}
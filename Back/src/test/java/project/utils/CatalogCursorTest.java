@@ -0,0 +1,57 @@
+package project.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CatalogCursorTest {
+
+    @Test
+    void roundTripsEachSortKey() {
+        CatalogCursor rating = CatalogCursor.decode(CatalogCursor.after(CatalogCursor.Sort.RATING, 4.5, 42).encode(), CatalogCursor.Sort.RATING);
+        assertEquals(4.5, rating.ratingKey());
+        assertEquals(42, rating.getLastId());
+
+        CatalogCursor students = CatalogCursor.decode(CatalogCursor.after(CatalogCursor.Sort.STUDENTS, 1200, 7).encode(), CatalogCursor.Sort.STUDENTS);
+        assertEquals(1200, students.studentsKey());
+        assertEquals(7, students.getLastId());
+
+        LocalDate day = LocalDate.of(2024, 2, 29);
+        CatalogCursor recent = CatalogCursor.decode(CatalogCursor.after(CatalogCursor.Sort.RECENT, day, 3).encode(), CatalogCursor.Sort.RECENT);
+        assertEquals(day, recent.recentKey());
+        assertEquals(CatalogCursor.Sort.RECENT, recent.getSort());
+    }
+
+    @Test
+    void roundTripsStartSentinels() {
+        for (CatalogCursor.Sort sort : CatalogCursor.Sort.values()) {
+            CatalogCursor start = CatalogCursor.start(sort);
+            CatalogCursor decoded = CatalogCursor.decode(start.encode(), sort);
+            assertEquals(start.encode(), decoded.encode());
+            assertEquals(Long.MAX_VALUE, decoded.getLastId());
+        }
+    }
+
+    @Test
+    void rejectsCursorOfAnotherSort() {
+        String token = CatalogCursor.start(CatalogCursor.Sort.RATING).encode();
+        assertThrows(IllegalArgumentException.class, () -> CatalogCursor.decode(token, CatalogCursor.Sort.STUDENTS));
+    }
+
+    @Test
+    void rejectsMalformedTokens() {
+        assertThrows(IllegalArgumentException.class, () -> CatalogCursor.decode("not base64!", CatalogCursor.Sort.RATING));
+        String badKey = CatalogCursor.after(CatalogCursor.Sort.RATING, "abc", 1).encode();
+        assertThrows(IllegalArgumentException.class, () -> CatalogCursor.decode(badKey, CatalogCursor.Sort.RATING));
+    }
+
+    @Test
+    void parsesSortParam() {
+        assertEquals(CatalogCursor.Sort.RATING, CatalogCursor.Sort.fromParam(null));
+        assertEquals(CatalogCursor.Sort.STUDENTS, CatalogCursor.Sort.fromParam(" students "));
+        assertThrows(IllegalArgumentException.class, () -> CatalogCursor.Sort.fromParam("price"));
+    }
+}
@@ -0,0 +1,54 @@
+package project.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CompletionTrieTest {
+
+    // Entries: 0 java (weight 1), 1 javascript (5), 2 jakarta (3), 3 python (4)
+    private final CompletionTrie trie = new CompletionTrie(
+            new String[]{"jakarta", "java", "javascript", "python"},
+            new int[]{2, 0, 1, 3},
+            new double[]{1, 5, 3, 4},
+            2);
+
+    @Test
+    void returnsBestEntriesForPrefix() {
+        assertArrayEquals(new int[]{1, 2}, complete("ja", 2));
+        assertArrayEquals(new int[]{1, 0}, complete("java", 2));
+        assertArrayEquals(new int[]{1, 3}, complete("", 2));
+    }
+
+    @Test
+    void matchesInsideCompressedEdges() {
+        assertArrayEquals(new int[]{1}, complete("javas", 2));
+        assertArrayEquals(new int[]{3}, complete("pyt", 2));
+    }
+
+    @Test
+    void returnsNothingForUnknownPrefix() {
+        assertArrayEquals(new int[0], complete("javax", 2));
+        assertArrayEquals(new int[0], complete("rust", 2));
+    }
+
+    @Test
+    void stopsAtOutputLength() {
+        assertArrayEquals(new int[]{1}, complete("ja", 1));
+    }
+
+    @Test
+    void emptyTrieCompletesNothing() {
+        CompletionTrie empty = CompletionTrie.empty(3);
+        assertEquals(0, empty.size());
+        assertEquals(0, empty.complete("a", new int[3]));
+    }
+
+    private int[] complete(String prefix, int max) {
+        int[] out = new int[max];
+        return Arrays.copyOf(out, trie.complete(prefix, out));
+    }
+}
@@ -0,0 +1,50 @@
+package project.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CountMinSketchTest {
+
+    @Test
+    void neverUndercounts() {
+        CountMinSketch sketch = new CountMinSketch(64, 4);
+        for (long key = 0; key < 500; key++) {
+            sketch.add(key, (int) (key % 7) + 1);
+        }
+        for (long key = 0; key < 500; key++) {
+            assertTrue(sketch.estimate(key) >= (int) (key % 7) + 1);
+        }
+    }
+
+    @Test
+    void isExactWithoutCollisions() {
+        CountMinSketch sketch = new CountMinSketch(1024, 4);
+        sketch.add(42, 3);
+        sketch.add(42, 2);
+        assertEquals(5, sketch.estimate(42));
+        assertEquals(0, sketch.estimate(43));
+    }
+
+    @Test
+    void addsAndSubtractsWindows() {
+        CountMinSketch total = new CountMinSketch(256, 3);
+        CountMinSketch bucket = new CountMinSketch(256, 3);
+        bucket.add(7, 4);
+        total.addAll(bucket);
+        total.addAll(bucket);
+        assertEquals(8, total.estimate(7));
+        total.subtractAll(bucket);
+        assertEquals(4, total.estimate(7));
+        total.clear();
+        assertEquals(0, total.estimate(7));
+    }
+
+    @Test
+    void rejectsMismatchedShapes() {
+        assertThrows(IllegalArgumentException.class, () -> new CountMinSketch(64, 4).addAll(new CountMinSketch(128, 4)));
+        assertThrows(IllegalArgumentException.class, () -> new CountMinSketch(64, 0));
+    }
+}
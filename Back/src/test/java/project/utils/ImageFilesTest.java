@@ -0,0 +1,45 @@
+package project.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImageFilesTest {
+
+    @Test
+    void scalesDownKeepingAspectRatio() {
+        BufferedImage scaled = ImageFiles.scaleToWidth(new BufferedImage(2000, 1000, BufferedImage.TYPE_INT_ARGB), 320, true);
+        assertEquals(320, scaled.getWidth());
+        assertEquals(160, scaled.getHeight());
+    }
+
+    @Test
+    void neverUpscales() {
+        BufferedImage scaled = ImageFiles.scaleToWidth(new BufferedImage(200, 50, BufferedImage.TYPE_INT_RGB), 640, true);
+        assertEquals(200, scaled.getWidth());
+        assertEquals(50, scaled.getHeight());
+    }
+
+    @Test
+    void keepsAtLeastOnePixelOfHeight() {
+        BufferedImage scaled = ImageFiles.scaleToWidth(new BufferedImage(3000, 2, BufferedImage.TYPE_INT_RGB), 300, true);
+        assertEquals(300, scaled.getWidth());
+        assertEquals(1, scaled.getHeight());
+    }
+
+    @Test
+    void drawsOpaqueTargetsOnWhite() {
+        BufferedImage transparent = new BufferedImage(800, 800, BufferedImage.TYPE_INT_ARGB);
+        BufferedImage opaque = ImageFiles.scaleToWidth(transparent, 100, true);
+        assertFalse(opaque.getColorModel().hasAlpha());
+        assertEquals(0xFFFFFFFF, opaque.getRGB(50, 50));
+
+        BufferedImage withAlpha = ImageFiles.scaleToWidth(transparent, 100, false);
+        assertTrue(withAlpha.getColorModel().hasAlpha());
+        assertEquals(0, withAlpha.getRGB(50, 50) >>> 24);
+    }
+}
@@ -0,0 +1,37 @@
+package project.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ImageRenditionTest {
+
+    @Test
+    void namesRenditionNextToOriginal() {
+        assertEquals("/uploads/courses/abc@thumb.jpg", ImageRendition.THUMB.urlOf("/uploads/courses/abc.jpg"));
+        assertEquals("/uploads/courses/abc@card.jpg", ImageRendition.CARD.urlOf("/uploads/courses/abc.webp"));
+    }
+
+    @Test
+    void keepsTransparencyForPngAndGif() {
+        assertEquals("/uploads/events/logo@hero.png", ImageRendition.HERO.urlOf("/uploads/events/logo.PNG"));
+        assertEquals("/uploads/events/anim@thumb.png", ImageRendition.THUMB.urlOf("/uploads/events/anim.gif"));
+    }
+
+    @Test
+    void ignoresDotsInDirectories() {
+        assertEquals("/uploads/v1.2/abc@thumb.jpg", ImageRendition.THUMB.urlOf("/uploads/v1.2/abc"));
+    }
+
+    @Test
+    void listsUrlsOnlyForStoredImages() {
+        Map<String, String> urls = ImageRendition.urlsFor("/uploads/courses/abc.jpg");
+        assertEquals(3, urls.size());
+        assertEquals("/uploads/courses/abc@card.jpg", urls.get("card"));
+        assertNull(ImageRendition.urlsFor("https://example.com/abc.jpg"));
+        assertNull(ImageRendition.urlsFor(null));
+    }
+}
@@ -0,0 +1,43 @@
+package project.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ReviewCursorTest {
+
+    @Test
+    void roundTripsEachSortKey() {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 5, 1, 12, 30, 15, 123_000_000);
+        ReviewCursor latest = ReviewCursor.decode(ReviewCursor.after(ReviewCursor.Sort.LATEST, createdAt, 99).encode(), ReviewCursor.Sort.LATEST);
+        assertEquals(createdAt, latest.createdAtKey());
+        assertEquals(99, latest.getLastId());
+
+        ReviewCursor rating = ReviewCursor.decode(ReviewCursor.after(ReviewCursor.Sort.RATING, 3.0, 5).encode(), ReviewCursor.Sort.RATING);
+        assertEquals(3.0, rating.ratingKey());
+        assertEquals(5, rating.getLastId());
+    }
+
+    @Test
+    void roundTripsStartSentinels() {
+        for (ReviewCursor.Sort sort : ReviewCursor.Sort.values()) {
+            ReviewCursor start = ReviewCursor.start(sort);
+            assertEquals(start.encode(), ReviewCursor.decode(start.encode(), sort).encode());
+        }
+    }
+
+    @Test
+    void rejectsCursorOfAnotherSort() {
+        String token = ReviewCursor.start(ReviewCursor.Sort.LATEST).encode();
+        assertThrows(IllegalArgumentException.class, () -> ReviewCursor.decode(token, ReviewCursor.Sort.RATING));
+    }
+
+    @Test
+    void rejectsKeyThatDoesNotParse() {
+        String token = ReviewCursor.after(ReviewCursor.Sort.LATEST, "yesterday", 1).encode();
+        assertThrows(IllegalArgumentException.class, () -> ReviewCursor.decode(token, ReviewCursor.Sort.LATEST));
+    }
+}
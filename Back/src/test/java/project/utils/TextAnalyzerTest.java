@@ -0,0 +1,33 @@
+package project.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TextAnalyzerTest {
+
+    @Test
+    void normalizesCaseAndAccents() {
+        assertEquals("debutant", TextAnalyzer.normalize("Débutant"));
+        assertEquals("", TextAnalyzer.normalize(null));
+    }
+
+    @Test
+    void tokenizesOnNonAlphanumerics() {
+        assertEquals(List.of("java", "17", "pour", "debutants"), TextAnalyzer.tokenize("  Java-17: pour Débutants! "));
+        assertEquals(List.of(), TextAnalyzer.tokenize("--"));
+    }
+
+    @Test
+    void boundsEditDistance() {
+        assertTrue(TextAnalyzer.withinEditDistance("spring", "spring", 0));
+        assertTrue(TextAnalyzer.withinEditDistance("spring", "sprnig", 1));
+        assertTrue(TextAnalyzer.withinEditDistance("python", "pyton", 1));
+        assertFalse(TextAnalyzer.withinEditDistance("python", "pyt", 2));
+        assertFalse(TextAnalyzer.withinEditDistance("kotlin", "docker", 2));
+    }
+}